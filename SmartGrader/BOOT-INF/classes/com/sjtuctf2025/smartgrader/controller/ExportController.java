@@ -0,0 +1,136 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sjtuctf2025.smartgrader.grader.GradeRequest;
+import com.sjtuctf2025.smartgrader.grader.GradeRule;
+import com.sjtuctf2025.smartgrader.grader.RuleCompiler;
+import com.sjtuctf2025.smartgrader.grader.RuleSet;
+import com.sjtuctf2025.smartgrader.grader.ScoreClassifier;
+import com.sjtuctf2025.smartgrader.sheet.CsvSheetWriter;
+import com.sjtuctf2025.smartgrader.sheet.SheetWriter;
+import com.sjtuctf2025.smartgrader.sheet.XlsxSheetWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Downloads graded results as 等级评定结果.xlsx (or .csv with {@code format=csv}). The body is
+ * {@code {"rules": [...], "rows": [{"studentId":..,"name":..,"score":..}, ...]}} with rules first; each row is
+ * graded and written to the sheet as soon as it is parsed, so neither the rows nor the workbook are ever held
+ * in memory.
+ */
+@RestController
+@RequestMapping({"/api"})
+public class ExportController {
+   public static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+   private final RuleCompiler ruleCompiler;
+   private final JsonFactory jsonFactory;
+
+   public ExportController(RuleCompiler ruleCompiler, ObjectMapper objectMapper) {
+      this.ruleCompiler = ruleCompiler;
+      this.jsonFactory = objectMapper.getFactory();
+   }
+
+   @PostMapping(value = {"/grader/export"}, consumes = {"application/json"})
+   public void export(@RequestParam(value = "format", defaultValue = "xlsx") String format, HttpServletRequest request, HttpServletResponse response) throws IOException {
+      boolean csv = "csv".equalsIgnoreCase(format);
+      if (!csv && !"xlsx".equalsIgnoreCase(format)) {
+         response.sendError(400, "format must be xlsx or csv");
+         return;
+      }
+
+      try (JsonParser p = this.jsonFactory.createParser(request.getInputStream())) {
+         List<GradeRule> rules = null;
+         boolean rowsFollow = false;
+         if (p.nextToken() != JsonToken.START_OBJECT) {
+            response.sendError(400, "Expected a rules object first");
+            return;
+         }
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("rules".equals(field)) {
+               rules = GradeRequest.readRules(p);
+            } else if ("rows".equals(field)) {
+               rowsFollow = true;
+               break;
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         if (rules == null || !rowsFollow || p.currentToken() != JsonToken.START_ARRAY) {
+            response.sendError(400, "Rules must come before the rows array");
+            return;
+         }
+
+         if (!RuleSet.isWithinLimits(rules)) {
+            response.sendError(400, "Too many rules!");
+            return;
+         }
+
+         RuleSet ruleSet = this.ruleCompiler.compile(rules);
+         String filename = "等级评定结果." + (csv ? "csv" : "xlsx");
+         response.setContentType(csv ? "text/csv;charset=UTF-8" : XLSX);
+         response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''" + URLEncoder.encode(filename, StandardCharsets.UTF_8).replace("+", "%20"));
+
+         SheetWriter writer = csv ? new CsvSheetWriter(response.getOutputStream()) : new XlsxSheetWriter(response.getOutputStream(), "成绩单");
+
+         try {
+            writer.writeRow("学号", "姓名", "成绩", "等级");
+            this.writeRows(p, writer, ruleSet);
+         } catch (IOException | RuntimeException var13) {
+            System.out.println(var13.getMessage());
+            if (var13 instanceof JsonProcessingException && !response.isCommitted()) {
+               response.reset();
+               response.sendError(400, var13.getMessage());
+               return;
+            }
+
+            // Closing would write the sheet end and the zip directory and pass a cut-off file as complete, so the response is aborted instead.
+            throw var13;
+         }
+
+         writer.close();
+      }
+   }
+
+   private void writeRows(JsonParser p, SheetWriter writer, RuleSet ruleSet) throws IOException {
+      ScoreClassifier classifier = ruleSet.classifier();
+
+      while(p.nextToken() == JsonToken.START_OBJECT) {
+         String studentId = null;
+         String name = null;
+         Double score = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken token = p.nextToken();
+            if ("studentId".equals(field) && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+               studentId = p.getText();
+            } else if ("name".equals(field) && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+               name = p.getText();
+            } else if ("score".equals(field) && token != JsonToken.VALUE_NULL) {
+               score = GradeRequest.readScore(p);
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         String grade = score == null ? RuleSet.NO_GRADE : ruleSet.label(classifier.classify(score));
+         writer.writeRow(studentId, name, score, grade);
+      }
+   }
+}
@@ -1,79 +1,201 @@
 package com.sjtuctf2025.smartgrader.controller;
 
+import com.sjtuctf2025.smartgrader.grader.BinaryCodec;
+import com.sjtuctf2025.smartgrader.grader.Curve;
+import com.sjtuctf2025.smartgrader.grader.CutoffOptimizer;
+import com.sjtuctf2025.smartgrader.grader.CutoffRequest;
+import com.sjtuctf2025.smartgrader.grader.CurveRequest;
+import com.sjtuctf2025.smartgrader.grader.GradeArrayWriter;
+import com.sjtuctf2025.smartgrader.grader.GradeRequest;
+import com.sjtuctf2025.smartgrader.grader.GradeRule;
+import com.sjtuctf2025.smartgrader.grader.GradeStatistics;
+import com.sjtuctf2025.smartgrader.grader.GradingService;
+import com.sjtuctf2025.smartgrader.grader.RuleCompiler;
+import com.sjtuctf2025.smartgrader.grader.RuleSet;
+import com.sjtuctf2025.smartgrader.grader.RuleSetRegistry;
+import com.sjtuctf2025.smartgrader.grader.ScoreHistogram;
+import com.sjtuctf2025.smartgrader.grader.WhatIfRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.EOFException;
+import java.io.IOException;
 import java.util.ArrayList;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping({"/api"})
 public class GraderController {
+   private static final byte[] EMPTY_ARRAY = {'[', ']'};
+   private final RuleCompiler ruleCompiler;
+   private final GradingService gradingService;
+   private final RuleSetRegistry registry;
+
+   public GraderController(RuleCompiler ruleCompiler, GradingService gradingService, RuleSetRegistry registry) {
+      this.ruleCompiler = ruleCompiler;
+      this.gradingService = gradingService;
+      this.registry = registry;
+   }
+
+   // The grades are written from pre-encoded labels rather than returned for the message converter to serialise.
    @PostMapping({"/grader"})
-   public ArrayList<String> grader(@RequestBody String body) {
-      ArrayList results = new ArrayList();
+   public void grader(@RequestBody GradeRequest request, HttpServletResponse response) throws IOException {
+      RuleSet ruleSet = this.resolve(request);
+      response.setContentType("application/json");
+      if (request.scores() == null || ruleSet == null) {
+         response.getOutputStream().write(EMPTY_ARRAY);
+         return;
+      }
+
+      int[] indices = this.gradingService.classify(request.scores(), ruleSet);
+      GradeArrayWriter.write(response.getOutputStream(), ruleSet, indices);
+   }
 
+   // Same grading as above for machine clients, in the compact format described on BinaryCodec.
+   @PostMapping(value = {"/grader"}, consumes = {BinaryCodec.MEDIA_TYPE})
+   public void graderBinary(HttpServletRequest request, HttpServletResponse response) throws IOException {
+      GradeRequest gradeRequest;
       try {
-         JSONObject json = new JSONObject(body);
-         JSONArray scores = json.getJSONArray("scores");
-         JSONArray rules = json.getJSONArray("rules");
-         if (rules.length() > 10) {
-            System.out.println("Too many rules!");
-            return results;
-         }
+         gradeRequest = BinaryCodec.read(request.getInputStream());
+      } catch (IllegalArgumentException | EOFException var6) {
+         response.sendError(400, var6.getMessage());
+         return;
+      }
+
+      if (!RuleSet.isWithinLimits(gradeRequest.rules())) {
+         response.sendError(400, "Too many rules!");
+         return;
+      }
+
+      RuleSet ruleSet = this.ruleCompiler.compile(gradeRequest.rules());
+      int[] indices = this.gradingService.classify(gradeRequest.scores(), ruleSet);
+      response.setContentType(BinaryCodec.MEDIA_TYPE);
+      BinaryCodec.write(response.getOutputStream(), ruleSet, indices);
+   }
+
+   @PostMapping({"/grader/stats"})
+   public Map<String, Object> graderWithStats(@RequestBody GradeRequest request) {
+      Map<String, Object> body = new LinkedHashMap<>();
+      RuleSet ruleSet = this.resolve(request);
+      if (request.scores() == null || ruleSet == null) {
+         return body;
+      }
+
+      GradeStatistics statistics = new GradeStatistics(ruleSet.rules().size());
+      int[] indices = this.gradingService.classify(request.scores(), ruleSet, statistics);
+      String[] grades = new String[indices.length];
+
+      for(int i = 0; i < indices.length; ++i) {
+         grades[i] = ruleSet.label(indices[i]);
+      }
+
+      body.put("grades", grades);
+      body.put("statistics", statistics.toMap(ruleSet));
+      return body;
+   }
+
+   @PostMapping({"/grader/curve"})
+   public Map<String, Object> curve(@RequestBody CurveRequest request) {
+      Map<String, Object> body = new LinkedHashMap<>();
+      if (request.scores() == null || request.curve() == null) {
+         System.out.println("Missing scores or curve!");
+         return body;
+      }
+
+      List<GradeRule> rules;
+      try {
+         rules = Curve.rules(request.scores(), request.curve());
+      } catch (IllegalArgumentException var7) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, var7.getMessage());
+      }
+
+      if (!RuleSet.isWithinLimits(rules)) {
+         System.out.println("Too many rules!");
+         return body;
+      }
+
+      RuleSet ruleSet = this.ruleCompiler.compile(rules);
+      int[] indices = this.gradingService.classify(request.scores(), ruleSet);
+      String[] grades = new String[indices.length];
+
+      for(int i = 0; i < indices.length; ++i) {
+         grades[i] = ruleSet.label(indices[i]);
+      }
+
+      body.put("rules", rules);
+      body.put("grades", grades);
+      return body;
+   }
 
-         for(int i = 0; i < scores.length(); ++i) {
-            Double score = scores.getDouble(i);
-            results.add(this.grade(score, rules));
+   @PostMapping({"/grader/whatif"})
+   public List<Map<String, Long>> whatIf(@RequestBody WhatIfRequest request) {
+      List<Map<String, Long>> results = new ArrayList<>();
+      if (request.scores() == null || request.ruleSets() == null) {
+         System.out.println("Missing scores or rule sets!");
+         return results;
+      }
+
+      ScoreHistogram histogram = new ScoreHistogram(request.scores());
+
+      for(List<GradeRule> rules : request.ruleSets()) {
+         if (!RuleSet.isWithinLimits(rules)) {
+            System.out.println("Too many rules!");
+            results.add(null);
+         } else {
+            results.add(RuleSet.countsByGrade(rules, histogram.counts(rules, this.ruleCompiler)));
          }
-      } catch (Exception var8) {
-         System.out.println(var8.getMessage());
       }
 
       return results;
    }
 
-   private String grade(Double score, JSONArray rules) {
+   @PostMapping({"/grader/cutoffs"})
+   public Map<String, Object> cutoffs(@RequestBody CutoffRequest request) {
+      Map<String, Object> body = new LinkedHashMap<>();
+      if (request.scores() == null || request.targets() == null) {
+         System.out.println("Missing scores or targets!");
+         return body;
+      }
+
+      CutoffOptimizer optimizer;
       try {
-         for(int i = 0; i < rules.length(); ++i) {
-            JSONObject rule = rules.getJSONObject(i);
-            String leftSymbol = rule.getString("leftSymbol");
-            String rightSymbol = rule.getString("rightSymbol");
-            Double leftScore = rule.getDouble("leftScore");
-            Double rightScore = rule.getDouble("rightScore");
-            String grade = rule.getString("grade");
-            if (this.script(score, leftSymbol, rightSymbol, leftScore, rightScore)) {
-               return grade;
-            }
-         }
-      } catch (Exception var10) {
-         System.out.println(var10.getMessage());
+         optimizer = CutoffOptimizer.optimize(request.scores(), request.targets(), request.isNearest());
+      } catch (IllegalArgumentException var5) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, var5.getMessage());
       }
 
-      return "N/A";
+      body.put("rules", optimizer.rules());
+      body.put("counts", RuleSet.countsByGrade(optimizer.rules(), optimizer.counts()));
+      return body;
    }
 
-   private boolean script(Double score, String leftSymbol, String rightSymbol, Double leftScore, Double rightScore) {
-      if (leftSymbol.length() <= 24 && rightSymbol.length() <= 24) {
-         String expr = "(" + leftScore + leftSymbol + "x && x" + rightSymbol + rightScore + ")";
-         ScriptEngineManager manager = new ScriptEngineManager();
-         ScriptEngine engine = manager.getEngineByName("js");
-         engine.put("x", score);
-
-         try {
-            Object result = engine.eval(expr);
-            return result.toString().equals("true");
-         } catch (Exception var10) {
-            System.out.println(var10.getMessage());
-            return false;
+   private RuleSet resolve(GradeRequest request) {
+      if (request.ruleSetId() != null) {
+         RuleSetRegistry.Registration registration = this.registry.get(request.ruleSetId());
+         if (registration == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown rule set " + request.ruleSetId());
          }
+
+         if (request.version() != null && request.version() != registration.version()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Rule set " + registration.id() + " is at version " + registration.version());
+         }
+
+         return registration.ruleSet();
+      } else if (request.rules() == null) {
+         System.out.println("Missing scores or rules!");
+         return null;
+      } else if (!RuleSet.isWithinLimits(request.rules())) {
+         System.out.println("Too many rules!");
+         return null;
       } else {
-         System.out.println("Symbol too long!");
-         return false;
+         return this.ruleCompiler.compile(request.rules());
       }
    }
 }
@@ -0,0 +1,282 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sjtuctf2025.smartgrader.grader.GradeRequest;
+import com.sjtuctf2025.smartgrader.grader.GradeRule;
+import com.sjtuctf2025.smartgrader.grader.GradingSession;
+import com.sjtuctf2025.smartgrader.grader.RuleEdits;
+import com.sjtuctf2025.smartgrader.grader.RuleSet;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One connection to {@code /api/grader/live}. The client sends {@code {"type":"open","scores":[...],"rules":[...]}}
+ * once and then {@code {"type":"rules","rules":[...]}} or {@code {"type":"changes","changes":[...]}} as the user
+ * edits. Edits are folded into a pending rule list that is only evaluated after the client has been quiet for
+ * the debounce delay, so a dragged slider costs one regrade. Each evaluation answers with
+ * {@code {"type":"delta","version":n,"changes":[[index,"grade"],...]}}.
+ *
+ * <p>The debounce timer only hands off to a worker; compiling, regrading and sending never run on the timer
+ * thread or under the state lock. One evaluation runs per connection at a time and picks up whatever was
+ * edited while it ran, and a delta for a session that has since been replaced is dropped.
+ */
+public class LiveRegradeEndpoint extends Endpoint {
+   private final LiveRegradeEndpointExporter exporter;
+   private final ReentrantLock lock = new ReentrantLock();
+   private final ReentrantLock sendLock = new ReentrantLock();
+   private Session connection;
+   private volatile GradingSession session;
+   private List<GradeRule> pending;
+   private List<GradeRule> evaluated;
+   private boolean evaluating;
+   private ScheduledFuture<?> flush;
+
+   LiveRegradeEndpoint(LiveRegradeEndpointExporter exporter) {
+      this.exporter = exporter;
+   }
+
+   public void onOpen(Session connection, EndpointConfig config) {
+      this.connection = connection;
+      connection.setMaxTextMessageBufferSize(this.exporter.maxMessageSize());
+      connection.addMessageHandler(String.class, this::receive);
+   }
+
+   public void onClose(Session connection, CloseReason closeReason) {
+      this.lock.lock();
+
+      try {
+         this.release();
+      } finally {
+         this.lock.unlock();
+      }
+   }
+
+   private void receive(String message) {
+      try {
+         JsonNode node = this.exporter.objectMapper().readTree(message);
+         String type = node.path("type").asText();
+         if ("open".equals(type)) {
+            this.open(this.exporter.objectMapper().treeToValue(node, GradeRequest.class));
+         } else if ("rules".equals(type)) {
+            GradeRequest request = this.exporter.objectMapper().treeToValue(node, GradeRequest.class);
+            if (request.rules() == null) {
+               this.error("Missing rules!");
+            } else if (!this.edit(new ArrayList<>(request.rules()), null)) {
+               this.error("Send scores first");
+            }
+         } else if ("changes".equals(type)) {
+            if (!this.edit(null, this.exporter.objectMapper().treeToValue(node, RuleEdits.class))) {
+               this.error("Send scores first");
+            }
+         } else {
+            this.error("Unknown message type " + type);
+         }
+      } catch (IOException | IllegalArgumentException var5) {
+         this.error(var5.getMessage());
+      }
+   }
+
+   private void open(GradeRequest request) throws IOException {
+      if (request.scores() == null || request.rules() == null) {
+         this.error("Missing scores or rules!");
+         return;
+      }
+
+      if (!RuleSet.isWithinLimits(request.rules())) {
+         this.error("Too many rules!");
+         return;
+      }
+
+      GradingSession opened = this.exporter.sessions().open(request.scores(), this.exporter.ruleCompiler().compile(request.rules()));
+      this.lock.lock();
+
+      try {
+         this.release();
+         this.session = opened;
+         this.pending = opened.rules();
+         this.evaluated = this.pending;
+      } finally {
+         this.lock.unlock();
+      }
+
+      this.sendLock.lock();
+
+      try (JsonGenerator gen = this.generator()) {
+         gen.writeStartObject();
+         gen.writeStringField("type", "grades");
+         gen.writeNumberField("version", opened.version());
+         gen.writeArrayFieldStart("grades");
+
+         for(String grade : opened.grades()) {
+            gen.writeString(grade);
+         }
+
+         gen.writeEndArray();
+         gen.writeEndObject();
+      } finally {
+         this.sendLock.unlock();
+      }
+   }
+
+   // Either replaces the pending rules or applies positional changes to them; false until a session is open.
+   private boolean edit(List<GradeRule> rules, RuleEdits edits) {
+      this.lock.lock();
+
+      try {
+         if (this.session == null) {
+            return false;
+         }
+
+         if (edits != null) {
+            rules = new ArrayList<>(this.pending);
+
+            for(RuleEdits.Edit edit : edits.changes()) {
+               edit.applyTo(rules);
+            }
+         }
+
+         this.pending = rules;
+         if (this.flush != null) {
+            this.flush.cancel(false);
+         }
+
+         this.flush = this.exporter.scheduler().schedule(this::dispatch, this.exporter.debounceMillis(), TimeUnit.MILLISECONDS);
+         return true;
+      } finally {
+         this.lock.unlock();
+      }
+   }
+
+   // Runs on the timer thread, so it only starts a worker if none is already evaluating this connection.
+   private void dispatch() {
+      this.lock.lock();
+
+      try {
+         if (this.evaluating) {
+            return;
+         }
+
+         this.evaluating = true;
+      } finally {
+         this.lock.unlock();
+      }
+
+      this.exporter.workers().execute(this::evaluate);
+   }
+
+   // The flag is cleared in the finally block, so an Error escaping apply or send cannot leave the connection
+   // looking busy forever; edits that arrived meanwhile are dispatched again.
+   private void evaluate() {
+      try {
+         while(true) {
+            GradingSession current;
+            List<GradeRule> rules;
+            this.lock.lock();
+
+            try {
+               if (this.session == null || !this.connection.isOpen() || this.pending == this.evaluated) {
+                  return;
+               }
+
+               current = this.session;
+               rules = this.pending;
+               this.evaluated = rules;
+            } finally {
+               this.lock.unlock();
+            }
+
+            try {
+               this.send(current, current.apply(rules, this.exporter.ruleCompiler()));
+            } catch (IOException | RuntimeException var7) {
+               this.error(var7.getMessage());
+            }
+         }
+      } finally {
+         boolean again;
+         this.lock.lock();
+
+         try {
+            this.evaluating = false;
+            again = this.session != null && this.connection.isOpen() && this.pending != this.evaluated;
+         } finally {
+            this.lock.unlock();
+         }
+
+         if (again) {
+            this.dispatch();
+         }
+      }
+   }
+
+   private void send(GradingSession current, GradingSession.Delta delta) throws IOException {
+      this.sendLock.lock();
+
+      try {
+         if (this.session != current) {
+            return;
+         }
+
+         try (JsonGenerator gen = this.generator()) {
+            gen.writeStartObject();
+            gen.writeStringField("type", "delta");
+            gen.writeNumberField("version", delta.version());
+            gen.writeNumberField("regraded", delta.regraded());
+            gen.writeArrayFieldStart("changes");
+
+            for(int i = 0; i < delta.indices().length; ++i) {
+               gen.writeStartArray();
+               gen.writeNumber(delta.indices()[i]);
+               gen.writeString(delta.grades()[i]);
+               gen.writeEndArray();
+            }
+
+            gen.writeEndArray();
+            gen.writeEndObject();
+         }
+      } finally {
+         this.sendLock.unlock();
+      }
+   }
+
+   private void error(String message) {
+      this.sendLock.lock();
+
+      try (JsonGenerator gen = this.generator()) {
+         gen.writeStartObject();
+         gen.writeStringField("type", "error");
+         gen.writeStringField("message", message);
+         gen.writeEndObject();
+      } catch (IOException var7) {
+         System.out.println(var7.getMessage());
+      } finally {
+         this.sendLock.unlock();
+      }
+   }
+
+   private JsonGenerator generator() throws IOException {
+      return this.exporter.objectMapper().getFactory().createGenerator(this.connection.getBasicRemote().getSendWriter());
+   }
+
+   // Called with the state lock held.
+   private void release() {
+      if (this.flush != null) {
+         this.flush.cancel(false);
+         this.flush = null;
+      }
+
+      if (this.session != null) {
+         this.exporter.sessions().close(this.session.id());
+         this.session = null;
+      }
+   }
+}
@@ -0,0 +1,109 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sjtuctf2025.smartgrader.grader.GradingSessions;
+import com.sjtuctf2025.smartgrader.grader.RuleCompiler;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletContext;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.ServletContextAware;
+
+/**
+ * Registers {@link LiveRegradeEndpoint} with the servlet container's own WebSocket support, the same way
+ * Spring's {@code ServerEndpointExporter} would, so no extra Spring module is needed. A single timer thread runs
+ * the debounce delays; the regrades they trigger run on virtual threads.
+ */
+@Component
+public class LiveRegradeEndpointExporter implements ServletContextAware, SmartInitializingSingleton {
+   public static final String PATH = "/api/grader/live";
+   private final GradingSessions sessions;
+   private final RuleCompiler ruleCompiler;
+   private final ObjectMapper objectMapper;
+   private final long debounceMillis;
+   private final int maxMessageSize;
+   private final ScheduledExecutorService scheduler;
+   private final ExecutorService workers;
+   private ServletContext servletContext;
+
+   public LiveRegradeEndpointExporter(GradingSessions sessions, RuleCompiler ruleCompiler, ObjectMapper objectMapper,
+                                      @Value("${grader.live.debounce-ms:50}") long debounceMillis,
+                                      @Value("${grader.live.max-message-size:16777216}") int maxMessageSize) {
+      this.sessions = sessions;
+      this.ruleCompiler = ruleCompiler;
+      this.objectMapper = objectMapper;
+      this.debounceMillis = debounceMillis;
+      this.maxMessageSize = maxMessageSize;
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+         Thread thread = new Thread(task, "live-regrade-timer");
+         thread.setDaemon(true);
+         return thread;
+      });
+      this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("live-regrade-", 0L).factory());
+   }
+
+   public void setServletContext(ServletContext servletContext) {
+      this.servletContext = servletContext;
+   }
+
+   public void afterSingletonsInstantiated() {
+      Object container = this.servletContext == null ? null : this.servletContext.getAttribute("jakarta.websocket.server.ServerContainer");
+      if (!(container instanceof ServerContainer)) {
+         System.out.println("No WebSocket container, " + PATH + " is disabled");
+         return;
+      }
+
+      ServerEndpointConfig config = ServerEndpointConfig.Builder.create(LiveRegradeEndpoint.class, PATH).configurator(new ServerEndpointConfig.Configurator() {
+         public <T> T getEndpointInstance(Class<T> endpointClass) {
+            return endpointClass.cast(new LiveRegradeEndpoint(LiveRegradeEndpointExporter.this));
+         }
+      }).build();
+
+      try {
+         ((ServerContainer)container).addEndpoint(config);
+      } catch (DeploymentException var4) {
+         System.out.println(var4.getMessage());
+      }
+   }
+
+   @PreDestroy
+   public void close() {
+      this.scheduler.shutdownNow();
+      this.workers.shutdownNow();
+   }
+
+   GradingSessions sessions() {
+      return this.sessions;
+   }
+
+   RuleCompiler ruleCompiler() {
+      return this.ruleCompiler;
+   }
+
+   ObjectMapper objectMapper() {
+      return this.objectMapper;
+   }
+
+   long debounceMillis() {
+      return this.debounceMillis;
+   }
+
+   int maxMessageSize() {
+      return this.maxMessageSize;
+   }
+
+   ScheduledExecutorService scheduler() {
+      return this.scheduler;
+   }
+
+   ExecutorService workers() {
+      return this.workers;
+   }
+}
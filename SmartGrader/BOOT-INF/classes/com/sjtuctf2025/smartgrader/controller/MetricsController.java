@@ -0,0 +1,37 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.sjtuctf2025.smartgrader.grader.ClassifierGenerator;
+import com.sjtuctf2025.smartgrader.grader.GraderMetrics;
+import com.sjtuctf2025.smartgrader.grader.RuleCompiler;
+import com.sjtuctf2025.smartgrader.grader.ScriptEnginePool;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping({"/api"})
+public class MetricsController {
+   private final ScriptEnginePool scriptEngines;
+   private final GraderMetrics graderMetrics;
+   private final ClassifierGenerator classifierGenerator;
+   private final RuleCompiler ruleCompiler;
+
+   public MetricsController(ScriptEnginePool scriptEngines, GraderMetrics graderMetrics, ClassifierGenerator classifierGenerator, RuleCompiler ruleCompiler) {
+      this.scriptEngines = scriptEngines;
+      this.graderMetrics = graderMetrics;
+      this.classifierGenerator = classifierGenerator;
+      this.ruleCompiler = ruleCompiler;
+   }
+
+   @GetMapping({"/metrics"})
+   public Map<String, Object> metrics() {
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      metrics.put("grader", this.graderMetrics.stats());
+      metrics.put("ruleSetCache", this.ruleCompiler.cacheStats());
+      metrics.put("scriptEngines", this.scriptEngines.stats());
+      metrics.put("generatedClassifiers", this.classifierGenerator.stats());
+      return metrics;
+   }
+}
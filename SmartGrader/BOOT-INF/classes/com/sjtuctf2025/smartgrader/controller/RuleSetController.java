@@ -0,0 +1,86 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.sjtuctf2025.smartgrader.grader.RuleSet;
+import com.sjtuctf2025.smartgrader.grader.RuleSetRegistry;
+import com.sjtuctf2025.smartgrader.grader.RuleSetRequest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping({"/api/rulesets"})
+public class RuleSetController {
+   private final RuleSetRegistry registry;
+
+   public RuleSetController(RuleSetRegistry registry) {
+      this.registry = registry;
+   }
+
+   @PostMapping
+   public ResponseEntity<Map<String, Object>> register(@RequestBody RuleSetRequest request) {
+      validate(request);
+      RuleSetRegistry.Registration registration = this.registry.register(request.rules());
+      if (registration == null) {
+         throw new ResponseStatusException(HttpStatus.INSUFFICIENT_STORAGE, "Too many rule sets registered");
+      }
+
+      return ResponseEntity.status(HttpStatus.CREATED).body(describe(registration, false));
+   }
+
+   @PutMapping({"/{id}"})
+   public Map<String, Object> update(@PathVariable("id") String id, @RequestBody RuleSetRequest request) {
+      validate(request);
+      RuleSetRegistry.Registration registration = this.registry.update(id, request.rules());
+      if (registration == null) {
+         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown rule set " + id);
+      }
+
+      return describe(registration, false);
+   }
+
+   @GetMapping({"/{id}"})
+   public Map<String, Object> get(@PathVariable("id") String id) {
+      RuleSetRegistry.Registration registration = this.registry.get(id);
+      if (registration == null) {
+         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown rule set " + id);
+      }
+
+      return describe(registration, true);
+   }
+
+   @DeleteMapping({"/{id}"})
+   public ResponseEntity<Void> delete(@PathVariable("id") String id) {
+      return this.registry.remove(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+   }
+
+   private static void validate(RuleSetRequest request) {
+      if (request.rules() == null || request.rules().isEmpty()) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing rules");
+      }
+
+      if (!RuleSet.isWithinLimits(request.rules())) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Too many rules!");
+      }
+   }
+
+   private static Map<String, Object> describe(RuleSetRegistry.Registration registration, boolean withRules) {
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("id", registration.id());
+      body.put("version", registration.version());
+      if (withRules) {
+         body.put("rules", registration.ruleSet().rules());
+      }
+
+      return body;
+   }
+}
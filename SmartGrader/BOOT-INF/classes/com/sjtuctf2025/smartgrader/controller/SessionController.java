@@ -0,0 +1,113 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.sjtuctf2025.smartgrader.grader.GradeRequest;
+import com.sjtuctf2025.smartgrader.grader.GradingSession;
+import com.sjtuctf2025.smartgrader.grader.GradingSessions;
+import com.sjtuctf2025.smartgrader.grader.RuleCompiler;
+import com.sjtuctf2025.smartgrader.grader.RuleEdits;
+import com.sjtuctf2025.smartgrader.grader.RuleSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping({"/api/sessions"})
+public class SessionController {
+   private final GradingSessions sessions;
+   private final RuleCompiler ruleCompiler;
+
+   public SessionController(GradingSessions sessions, RuleCompiler ruleCompiler) {
+      this.sessions = sessions;
+      this.ruleCompiler = ruleCompiler;
+   }
+
+   @PostMapping
+   public ResponseEntity<Map<String, Object>> open(@RequestBody GradeRequest request) {
+      if (request.scores() == null || request.rules() == null) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing scores or rules!");
+      }
+
+      if (!RuleSet.isWithinLimits(request.rules())) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Too many rules!");
+      }
+
+      GradingSession session;
+      try {
+         session = this.sessions.open(request.scores(), this.ruleCompiler.compile(request.rules()));
+      } catch (IllegalArgumentException var4) {
+         throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, var4.getMessage());
+      }
+
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("id", session.id());
+      body.put("version", session.version());
+      body.put("grades", session.grades());
+      return ResponseEntity.status(HttpStatus.CREATED).body(body);
+   }
+
+   @GetMapping({"/{id}"})
+   public Map<String, Object> get(@PathVariable("id") String id) {
+      GradingSession session = this.session(id);
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("id", session.id());
+      body.put("version", session.version());
+      body.put("rules", session.rules());
+      body.put("grades", session.grades());
+      return body;
+   }
+
+   @PatchMapping({"/{id}/rules"})
+   public Map<String, Object> edit(@PathVariable("id") String id, @RequestBody RuleEdits edits) {
+      GradingSession session = this.session(id);
+
+      GradingSession.Delta delta;
+      try {
+         delta = session.apply(edits, this.ruleCompiler);
+      } catch (IllegalArgumentException var9) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, var9.getMessage());
+      } catch (IllegalStateException var10) {
+         throw new ResponseStatusException(HttpStatus.CONFLICT, var10.getMessage());
+      }
+
+      List<Map<String, Object>> changes = new ArrayList<>(delta.indices().length);
+
+      for(int i = 0; i < delta.indices().length; ++i) {
+         Map<String, Object> change = new LinkedHashMap<>();
+         change.put("index", delta.indices()[i]);
+         change.put("grade", delta.grades()[i]);
+         changes.add(change);
+      }
+
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("version", delta.version());
+      body.put("regraded", delta.regraded());
+      body.put("changes", changes);
+      return body;
+   }
+
+   @DeleteMapping({"/{id}"})
+   public ResponseEntity<Void> close(@PathVariable("id") String id) {
+      return this.sessions.close(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+   }
+
+   private GradingSession session(String id) {
+      GradingSession session = this.sessions.get(id);
+      if (session == null) {
+         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown session " + id);
+      }
+
+      return session;
+   }
+}
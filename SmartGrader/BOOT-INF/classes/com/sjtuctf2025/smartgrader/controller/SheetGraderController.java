@@ -0,0 +1,184 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sjtuctf2025.smartgrader.grader.GradeRequest;
+import com.sjtuctf2025.smartgrader.grader.GradeRule;
+import com.sjtuctf2025.smartgrader.grader.RuleCompiler;
+import com.sjtuctf2025.smartgrader.grader.RuleSet;
+import com.sjtuctf2025.smartgrader.grader.ScoreClassifier;
+import com.sjtuctf2025.smartgrader.sheet.CsvSheetReader;
+import com.sjtuctf2025.smartgrader.sheet.RosterColumns;
+import com.sjtuctf2025.smartgrader.sheet.SheetReader;
+import com.sjtuctf2025.smartgrader.sheet.XlsxSheetReader;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Grades a roster uploaded as a CSV or .xlsx file without the browser parsing it first. The multipart form
+ * carries the {@code file} and the {@code rules} as a JSON array; rows are read, graded and written back as
+ * {@code [{"studentId":..,"name":..,"score":..,"grade":..}, ...]} one at a time, so memory stays flat however
+ * long the sheet is. A score cell that is not a number comes back with a null score and no grade. A sheet
+ * that turns out to be malformed after grading has started aborts the response instead of ending the array.
+ */
+@RestController
+@RequestMapping({"/api"})
+public class SheetGraderController {
+   private final RuleCompiler ruleCompiler;
+   private final JsonFactory jsonFactory;
+
+   public SheetGraderController(RuleCompiler ruleCompiler, ObjectMapper objectMapper) {
+      this.ruleCompiler = ruleCompiler;
+      this.jsonFactory = objectMapper.getFactory();
+   }
+
+   @PostMapping(value = {"/grader/upload"}, consumes = {"multipart/form-data"})
+   public void upload(@RequestParam("file") MultipartFile file, @RequestParam("rules") String rulesJson,
+                      @RequestParam(value = "charset", defaultValue = "UTF-8") String charset, HttpServletResponse response) throws IOException {
+      List<GradeRule> rules;
+      try (JsonParser p = this.jsonFactory.createParser(rulesJson)) {
+         p.nextToken();
+         rules = GradeRequest.readRules(p);
+      } catch (IOException var25) {
+         response.sendError(400, "rules must be a JSON array");
+         return;
+      }
+
+      if (!RuleSet.isWithinLimits(rules)) {
+         response.sendError(400, "Too many rules!");
+         return;
+      }
+
+      Charset csvCharset;
+      try {
+         csvCharset = Charset.forName(charset);
+      } catch (IllegalCharsetNameException | UnsupportedCharsetException var24) {
+         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported charset " + charset);
+      }
+
+      byte[] magic = new byte[4];
+      try (InputStream in = file.getInputStream()) {
+         in.readNBytes(magic, 0, 4);
+      }
+
+      if ((magic[0] & 0xFF) == 0xD0 && (magic[1] & 0xFF) == 0xCF) {
+         response.sendError(415, "Legacy .xls files are not supported, save as .xlsx or CSV");
+         return;
+      }
+
+      Path temp = null;
+
+      try {
+         SheetReader reader;
+         if (magic[0] == 'P' && magic[1] == 'K') {
+            temp = Files.createTempFile("smartgrader", ".xlsx");
+            file.transferTo(temp);
+
+            try {
+               reader = new XlsxSheetReader(temp.toFile());
+            } catch (IOException var23) {
+               response.sendError(400, var23.getMessage());
+               return;
+            }
+         } else {
+            reader = new CsvSheetReader(new InputStreamReader(file.getInputStream(), csvCharset));
+         }
+
+         try {
+            this.grade(reader, this.ruleCompiler.compile(rules), response);
+         } finally {
+            reader.close();
+         }
+      } finally {
+         if (temp != null) {
+            Files.deleteIfExists(temp);
+         }
+      }
+   }
+
+   private void grade(SheetReader reader, RuleSet ruleSet, HttpServletResponse response) throws IOException {
+      String[] header;
+      try {
+         header = reader.next();
+      } catch (IOException var11) {
+         response.sendError(400, var11.getMessage());
+         return;
+      }
+
+      RosterColumns columns = header == null ? null : RosterColumns.find(header);
+      if (columns == null) {
+         response.sendError(400, "未找到“" + (header == null ? "学号" : RosterColumns.missing(header)) + "”列");
+         return;
+      }
+
+      reader.keepColumns(columns.columns());
+      ScoreClassifier classifier = ruleSet.classifier();
+      response.setContentType("application/json");
+      response.setCharacterEncoding("UTF-8");
+      int pending = 0;
+      JsonGenerator g = this.jsonFactory.createGenerator(response.getOutputStream());
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+      try {
+         g.writeStartArray();
+
+         String[] row;
+         while((row = reader.next()) != null) {
+            Double score = parseScore(columns.score(row));
+            g.writeStartObject();
+            g.writeStringField("studentId", columns.studentId(row));
+            g.writeStringField("name", columns.name(row));
+            if (score == null) {
+               g.writeNullField("score");
+               g.writeStringField("grade", RuleSet.NO_GRADE);
+            } else {
+               g.writeNumberField("score", score);
+               g.writeStringField("grade", ruleSet.label(classifier.classify(score)));
+            }
+
+            g.writeEndObject();
+            if (++pending == StreamingGraderController.FLUSH_EVERY) {
+               g.flush();
+               pending = 0;
+            }
+         }
+
+         g.writeEndArray();
+      } catch (IOException | RuntimeException var10) {
+         System.out.println(var10.getMessage());
+         // Left unclosed, like the stream endpoint, so a sheet that breaks part way never reads as a complete array.
+         throw var10;
+      }
+
+      g.close();
+   }
+
+   private static Double parseScore(String cell) {
+      if (cell == null) {
+         return null;
+      }
+
+      try {
+         return Double.parseDouble(cell.trim());
+      } catch (NumberFormatException var2) {
+         return null;
+      }
+   }
+}
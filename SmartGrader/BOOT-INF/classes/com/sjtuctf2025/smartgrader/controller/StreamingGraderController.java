@@ -0,0 +1,124 @@
+package com.sjtuctf2025.smartgrader.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sjtuctf2025.smartgrader.grader.GradeRequest;
+import com.sjtuctf2025.smartgrader.grader.GradeRule;
+import com.sjtuctf2025.smartgrader.grader.RuleCompiler;
+import com.sjtuctf2025.smartgrader.grader.RuleSet;
+import com.sjtuctf2025.smartgrader.grader.ScoreClassifier;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Grades a score stream of any length while it is still being uploaded.
+ *
+ * <p>With {@code application/x-ndjson} the first line is {@code {"rules": [...]}} and every following line is
+ * one score; each grade goes back as one JSON string per line. With {@code application/json} the body is the
+ * usual {@code {"rules": [...], "scores": [...]}} object with rules first, and the grades come back as a JSON
+ * array written element by element. Output is flushed every {@value #FLUSH_EVERY} grades. If reading or grading
+ * fails part way, the response is aborted rather than ended, so a short but well-formed body always means success.
+ */
+@RestController
+@RequestMapping({"/api"})
+public class StreamingGraderController {
+   public static final String NDJSON = "application/x-ndjson";
+   public static final int FLUSH_EVERY = 512;
+   private final RuleCompiler ruleCompiler;
+   private final JsonFactory jsonFactory;
+
+   public StreamingGraderController(RuleCompiler ruleCompiler, ObjectMapper objectMapper) {
+      this.ruleCompiler = ruleCompiler;
+      this.jsonFactory = objectMapper.getFactory();
+   }
+
+   @PostMapping(value = {"/grader/stream"}, consumes = {NDJSON, "application/json"})
+   public void stream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+      String contentType = request.getContentType();
+      boolean ndjson = contentType != null && contentType.startsWith(NDJSON);
+
+      try (JsonParser p = this.jsonFactory.createParser(request.getInputStream())) {
+         List<GradeRule> rules = null;
+         boolean scoresFollow = false;
+         if (p.nextToken() != JsonToken.START_OBJECT) {
+            response.sendError(400, "Expected a rules object first");
+            return;
+         }
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("rules".equals(field)) {
+               rules = GradeRequest.readRules(p);
+            } else if (!ndjson && "scores".equals(field)) {
+               scoresFollow = true;
+               break;
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         if (rules == null || !ndjson && !scoresFollow) {
+            response.sendError(400, "Rules must come before scores");
+            return;
+         }
+
+         if (!RuleSet.isWithinLimits(rules)) {
+            response.sendError(400, "Too many rules!");
+            return;
+         }
+
+         if (!ndjson && p.currentToken() != JsonToken.START_ARRAY) {
+            response.sendError(400, "scores must be an array");
+            return;
+         }
+
+         RuleSet ruleSet = this.ruleCompiler.compile(rules);
+         ScoreClassifier classifier = ruleSet.classifier();
+         response.setContentType(ndjson ? NDJSON : "application/json");
+         response.setCharacterEncoding("UTF-8");
+         JsonGenerator g = this.jsonFactory.createGenerator(response.getOutputStream());
+         g.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+         try {
+            if (ndjson) {
+               g.setRootValueSeparator(new SerializedString("\n"));
+               this.grade(p, g, classifier, ruleSet, null);
+               g.writeRaw('\n');
+            } else {
+               g.writeStartArray();
+               this.grade(p, g, classifier, ruleSet, JsonToken.END_ARRAY);
+               g.writeEndArray();
+            }
+         } catch (IOException | RuntimeException var15) {
+            System.out.println(var15.getMessage());
+            // Nothing is closed on the way out: once grades have been flushed the container can only drop the connection, so a client never reads a cut-off stream as complete.
+            throw var15;
+         }
+
+         g.close();
+      }
+   }
+
+   private void grade(JsonParser p, JsonGenerator g, ScoreClassifier classifier, RuleSet ruleSet, JsonToken end) throws IOException {
+      int pending = 0;
+
+      JsonToken token;
+      while((token = p.nextToken()) != null && token != end) {
+         g.writeString(ruleSet.label(classifier.classify(GradeRequest.readScore(p))));
+         if (++pending == FLUSH_EVERY) {
+            g.flush();
+            pending = 0;
+         }
+      }
+   }
+}
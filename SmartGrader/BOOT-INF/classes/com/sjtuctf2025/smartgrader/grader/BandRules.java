@@ -0,0 +1,74 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What curves and cutoff targets share once a band's cutoff is known. Cumulative shares become start positions
+ * among the ranked scores, and each band becomes a threshold rule bounded above by the band before it: the top
+ * band reaches +Infinity inclusive, later bands stop just below the previous cutoff, and a band that gets no
+ * students is an empty range so the grades keep their order.
+ */
+final class BandRules {
+   private static final double EPSILON = 1.0E-9;
+   private final int ranked;
+   private final List<GradeRule> rules;
+   private double cumulative;
+   private double upper = Double.POSITIVE_INFINITY;
+   private String upperSymbol = "<=";
+
+   // The shares may add up to less than 100%, in which case the students past the last band get no grade.
+   BandRules(List<CurveRequest.Band> bands, int ranked, String overflow) {
+      double total = 0.0;
+
+      for(CurveRequest.Band band : bands) {
+         total += band.percent();
+      }
+
+      if (total > 100.0 + EPSILON) {
+         throw new IllegalArgumentException(overflow + " " + total + "%");
+      }
+
+      this.ranked = ranked;
+      this.rules = new ArrayList<>(bands.size());
+   }
+
+   // A fresh copy of the scores without NaN, which is never ranked.
+   static double[] ranked(double[] scores) {
+      double[] values = new double[scores.length];
+      int count = 0;
+
+      for(double score : scores) {
+         if (!Double.isNaN(score)) {
+            values[count++] = score;
+         }
+      }
+
+      return count == values.length ? values : Arrays.copyOf(values, count);
+   }
+
+   // Ascending position where the next band starts; everything from there up belongs to it or a better band.
+   int start(CurveRequest.Band band) {
+      this.cumulative += band.percent();
+      return this.ranked - (int)Math.min(this.ranked, Math.floor(this.cumulative * this.ranked / 100.0 + EPSILON));
+   }
+
+   void add(String grade, double cutoff) {
+      this.rules.add(new GradeRule(cutoff, "<=", this.upper, this.upperSymbol, grade));
+      this.upper = cutoff;
+      this.upperSymbol = "<";
+   }
+
+   void addEmpty(String grade) {
+      if (this.upperSymbol.equals("<=")) {
+         this.rules.add(new GradeRule(Double.POSITIVE_INFINITY, "<", this.upper, this.upperSymbol, grade));
+      } else {
+         this.rules.add(new GradeRule(this.upper, "<=", this.upper, "<", grade));
+      }
+   }
+
+   List<GradeRule> rules() {
+      return this.rules;
+   }
+}
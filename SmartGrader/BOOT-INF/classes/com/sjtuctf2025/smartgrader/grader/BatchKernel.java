@@ -0,0 +1,9 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.List;
+
+public interface BatchKernel {
+   boolean supports(List<GradeRule> rules);
+
+   void classify(double[] scores, int from, int to, List<GradeRule> rules, int[] indices);
+}
@@ -0,0 +1,230 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@value #MEDIA_TYPE} wire format for {@code /api/grader}, all little-endian.
+ *
+ * <p>Request: the magic {@code "SGR1"}; a u8 score encoding, {@code 0} for float64 scores or {@code 1} for
+ * int32 scores followed by their float64 divisor; a u16 rule count and per rule a float64 left score, a u8
+ * left operator, a float64 right score, a u8 right operator and a u16-length UTF-8 grade, where operators are
+ * {@link Comparison} ordinals; then a u32 score count and the scores.
+ *
+ * <p>Response: {@code "SGR1"}; a u16 dictionary size and each label as a u16-length UTF-8 string, with
+ * {@value RuleSet#NO_GRADE} always at code 0; a u8 code width of 1 or 2 bytes, 2 only past 256 labels; a u32
+ * student count and one code per student.
+ */
+public final class BinaryCodec {
+   public static final String MEDIA_TYPE = "application/x-smartgrader";
+   public static final int FLOAT64 = 0;
+   public static final int SCALED_INT32 = 1;
+   private static final byte[] MAGIC = {'S', 'G', 'R', '1'};
+   private static final int BUFFER_SIZE = 65536;
+   private static final int INITIAL_SCORES = 1 << 16;
+
+   private BinaryCodec() {
+   }
+
+   public static GradeRequest read(InputStream in) throws IOException {
+      Reader reader = new Reader(Channels.newChannel(in));
+      byte[] magic = new byte[MAGIC.length];
+      reader.bytes(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+         throw new IllegalArgumentException("Not a " + MEDIA_TYPE + " body");
+      }
+
+      int encoding = reader.u8();
+      if (encoding != FLOAT64 && encoding != SCALED_INT32) {
+         throw new IllegalArgumentException("Unknown score encoding " + encoding);
+      }
+
+      double divisor = encoding == SCALED_INT32 ? reader.f64() : 1.0;
+      int ruleCount = reader.u16();
+      List<GradeRule> rules = new ArrayList<>(ruleCount);
+      Comparison[] ops = Comparison.values();
+
+      for(int i = 0; i < ruleCount; ++i) {
+         double leftScore = reader.f64();
+         int left = reader.u8();
+         double rightScore = reader.f64();
+         int right = reader.u8();
+         if (left >= ops.length || right >= ops.length) {
+            throw new IllegalArgumentException("Unknown operator in rule " + i);
+         }
+
+         rules.add(new GradeRule(leftScore, ops[left].symbol(), rightScore, ops[right].symbol(), reader.string()));
+      }
+
+      long count = reader.u32();
+      if (count > Integer.MAX_VALUE - 8) {
+         throw new IllegalArgumentException("Too many scores: " + count);
+      }
+
+      // Grown as scores arrive, so a forged count cannot reserve memory the body never fills.
+      double[] scores = new double[(int)Math.min(count, INITIAL_SCORES)];
+      int read = 0;
+
+      while(read < count) {
+         if (read == scores.length) {
+            scores = Arrays.copyOf(scores, (int)Math.min(count, 2L * scores.length));
+         }
+
+         read += encoding == FLOAT64 ? reader.f64s(scores, read, scores.length - read) : reader.scaled(scores, read, scores.length - read, divisor);
+      }
+
+      return new GradeRequest(scores, rules, null, null);
+   }
+
+   public static void write(OutputStream out, RuleSet ruleSet, int[] indices) throws IOException {
+      Map<String, Integer> dictionary = new LinkedHashMap<>();
+      dictionary.put(RuleSet.NO_GRADE, 0);
+      List<GradeRule> rules = ruleSet.rules();
+      // codes[rule + 1] is the dictionary code for that rule's label; codes[0] is N/A.
+      int[] codes = new int[rules.size() + 1];
+
+      for(int i = 0; i < rules.size(); ++i) {
+         codes[i + 1] = dictionary.computeIfAbsent(rules.get(i).grade(), label -> dictionary.size());
+      }
+
+      boolean wide = dictionary.size() > 256;
+      WritableByteChannel channel = Channels.newChannel(out);
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.put(MAGIC).putShort((short)dictionary.size());
+
+      for(String label : dictionary.keySet()) {
+         byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+         if (buffer.remaining() < bytes.length + 2) {
+            drain(channel, buffer);
+         }
+
+         if (bytes.length + 2 > buffer.capacity()) {
+            throw new IllegalArgumentException("Grade label too long");
+         }
+
+         buffer.putShort((short)bytes.length).put(bytes);
+      }
+
+      if (buffer.remaining() < 5) {
+         drain(channel, buffer);
+      }
+
+      buffer.put((byte)(wide ? 2 : 1)).putInt(indices.length);
+
+      for(int index : indices) {
+         if (buffer.remaining() < 2) {
+            drain(channel, buffer);
+         }
+
+         int code = codes[index + 1];
+         if (wide) {
+            buffer.putShort((short)code);
+         } else {
+            buffer.put((byte)code);
+         }
+      }
+
+      drain(channel, buffer);
+      out.flush();
+   }
+
+   private static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+      buffer.flip();
+
+      while(buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+
+      buffer.clear();
+   }
+
+   private static final class Reader {
+      private final ReadableByteChannel channel;
+      private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+      Reader(ReadableByteChannel channel) {
+         this.channel = channel;
+         this.buffer.limit(0);
+      }
+
+      int u8() throws IOException {
+         this.require(1);
+         return this.buffer.get() & 0xFF;
+      }
+
+      int u16() throws IOException {
+         this.require(2);
+         return this.buffer.getShort() & 0xFFFF;
+      }
+
+      long u32() throws IOException {
+         this.require(4);
+         return this.buffer.getInt() & 0xFFFFFFFFL;
+      }
+
+      double f64() throws IOException {
+         this.require(8);
+         return this.buffer.getDouble();
+      }
+
+      void bytes(byte[] into) throws IOException {
+         this.require(into.length);
+         this.buffer.get(into);
+      }
+
+      String string() throws IOException {
+         byte[] bytes = new byte[this.u16()];
+         this.bytes(bytes);
+         return new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      // Bulk-copies as many whole doubles as are buffered, at least one.
+      int f64s(double[] into, int offset, int max) throws IOException {
+         this.require(8);
+         int n = Math.min(max, this.buffer.remaining() / 8);
+         this.buffer.asDoubleBuffer().get(into, offset, n);
+         this.buffer.position(this.buffer.position() + 8 * n);
+         return n;
+      }
+
+      int scaled(double[] into, int offset, int max, double divisor) throws IOException {
+         this.require(4);
+         int n = Math.min(max, this.buffer.remaining() / 4);
+
+         for(int i = 0; i < n; ++i) {
+            into[offset + i] = this.buffer.getInt() / divisor;
+         }
+
+         return n;
+      }
+
+      private void require(int bytes) throws IOException {
+         if (this.buffer.remaining() >= bytes) {
+            return;
+         }
+
+         this.buffer.compact();
+
+         while(this.buffer.position() < bytes) {
+            if (this.channel.read(this.buffer) < 0) {
+               throw new EOFException("Truncated " + MEDIA_TYPE + " body");
+            }
+         }
+
+         this.buffer.flip();
+      }
+   }
+}
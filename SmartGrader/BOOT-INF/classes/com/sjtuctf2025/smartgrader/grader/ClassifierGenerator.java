@@ -0,0 +1,165 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns an {@link IntervalIndex} into a generated class whose {@code classify} is the binary search unrolled
+ * into compare-and-branch bytecode with the boundaries and grade indices as constants.
+ *
+ * <p>Every class gets its own {@link GeneratedClassLoader}, so once a rule set falls out of the cache and no
+ * request holds it any more, the class and its loader can be unloaded together.
+ */
+@Component
+public class ClassifierGenerator {
+   public static final int MAX_BOUNDS = 64;
+   private static final String INTERFACE = Type.getInternalName(ScoreClassifier.class);
+   private static final String PREFIX = "com/sjtuctf2025/smartgrader/grader/GeneratedClassifier$";
+   private final int capacity;
+   private final Map<IntervalIndex, ScoreClassifier> cache;
+   private final ReentrantLock lock = new ReentrantLock();
+   private final AtomicLong generated = new AtomicLong();
+   private final AtomicLong hits = new AtomicLong();
+
+   public ClassifierGenerator(@Value("${grader.bytecode.cache-size:256}") int capacity) {
+      this.capacity = capacity;
+      this.cache = new LinkedHashMap<>(16, 0.75F, true);
+   }
+
+   public ScoreClassifier generate(IntervalIndex index) {
+      if (this.capacity <= 0 || index.bounds().length > MAX_BOUNDS) {
+         return index;
+      }
+
+      this.lock.lock();
+
+      try {
+         ScoreClassifier classifier = this.cache.get(index);
+         if (classifier != null) {
+            this.hits.incrementAndGet();
+            return classifier;
+         }
+
+         classifier = this.define(index);
+         this.cache.put(index, classifier);
+         if (this.cache.size() > this.capacity) {
+            this.cache.remove(this.cache.keySet().iterator().next());
+         }
+
+         return classifier;
+      } catch (ReflectiveOperationException | LinkageError var6) {
+         System.out.println(var6.getMessage());
+         return index;
+      } finally {
+         this.lock.unlock();
+      }
+   }
+
+   public Map<String, Object> stats() {
+      Map<String, Object> stats = new LinkedHashMap<>();
+      stats.put("generated", this.generated.get());
+      stats.put("hits", this.hits.get());
+      this.lock.lock();
+
+      try {
+         stats.put("cached", this.cache.size());
+      } finally {
+         this.lock.unlock();
+      }
+
+      return stats;
+   }
+
+   private ScoreClassifier define(IntervalIndex index) throws ReflectiveOperationException {
+      String name = PREFIX + this.generated.incrementAndGet();
+      byte[] bytes = this.emit(name, index);
+      GeneratedClassLoader loader = new GeneratedClassLoader(ScoreClassifier.class.getClassLoader());
+      Class<?> type = loader.define(name.replace('/', '.'), bytes);
+      return (ScoreClassifier)type.getDeclaredConstructor().newInstance();
+   }
+
+   private byte[] emit(String name, IntervalIndex index) {
+      ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+      cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null, "java/lang/Object", new String[]{INTERFACE});
+      MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+      init.visitCode();
+      init.visitVarInsn(Opcodes.ALOAD, 0);
+      init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+      init.visitInsn(Opcodes.RETURN);
+      init.visitMaxs(0, 0);
+      init.visitEnd();
+      MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "classify", "(D)I", null, null);
+      mv.visitCode();
+      Label number = new Label();
+      mv.visitVarInsn(Opcodes.DLOAD, 1);
+      mv.visitVarInsn(Opcodes.DLOAD, 1);
+      mv.visitInsn(Opcodes.DCMPL);
+      mv.visitJumpInsn(Opcodes.IFEQ, number);
+      this.returnIndex(mv, index.nanWinner());
+      mv.visitLabel(number);
+      this.search(mv, index.bounds(), index.winners(), 0, index.bounds().length);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+      cw.visitEnd();
+      return cw.toByteArray();
+   }
+
+   // Emits the lookup for a score whose lower-bound position in bounds is known to lie in [lo, hi].
+   private void search(MethodVisitor mv, double[] bounds, int[] winners, int lo, int hi) {
+      if (lo == hi) {
+         if (lo == bounds.length || winners[2 * lo] == winners[2 * lo + 1]) {
+            this.returnIndex(mv, winners[2 * lo]);
+         } else {
+            Label gap = new Label();
+            mv.visitVarInsn(Opcodes.DLOAD, 1);
+            mv.visitLdcInsn(bounds[lo]);
+            mv.visitInsn(Opcodes.DCMPL);
+            mv.visitJumpInsn(Opcodes.IFNE, gap);
+            this.returnIndex(mv, winners[2 * lo + 1]);
+            mv.visitLabel(gap);
+            this.returnIndex(mv, winners[2 * lo]);
+         }
+      } else {
+         int mid = lo + hi >>> 1;
+         Label upper = new Label();
+         mv.visitVarInsn(Opcodes.DLOAD, 1);
+         mv.visitLdcInsn(bounds[mid]);
+         mv.visitInsn(Opcodes.DCMPL);
+         mv.visitJumpInsn(Opcodes.IFGT, upper);
+         this.search(mv, bounds, winners, lo, mid);
+         mv.visitLabel(upper);
+         this.search(mv, bounds, winners, mid + 1, hi);
+      }
+   }
+
+   private void returnIndex(MethodVisitor mv, int index) {
+      if (index >= -1 && index <= 5) {
+         mv.visitInsn(Opcodes.ICONST_0 + index);
+      } else if (index <= Byte.MAX_VALUE) {
+         mv.visitIntInsn(Opcodes.BIPUSH, index);
+      } else {
+         mv.visitIntInsn(Opcodes.SIPUSH, index);
+      }
+
+      mv.visitInsn(Opcodes.IRETURN);
+   }
+
+   private static final class GeneratedClassLoader extends ClassLoader {
+      GeneratedClassLoader(ClassLoader parent) {
+         super(parent);
+      }
+
+      Class<?> define(String name, byte[] bytes) {
+         return this.defineClass(name, bytes, 0, bytes.length);
+      }
+   }
+}
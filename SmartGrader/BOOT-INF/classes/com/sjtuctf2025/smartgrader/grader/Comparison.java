@@ -0,0 +1,114 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.List;
+
+public enum Comparison {
+   LT("<"),
+   LE("<="),
+   EQ("=="),
+   GE(">="),
+   GT(">"),
+   NE("!=");
+
+   private final String symbol;
+
+   Comparison(String symbol) {
+      this.symbol = symbol;
+   }
+
+   public String symbol() {
+      return this.symbol;
+   }
+
+   public boolean test(double a, double b) {
+      switch (this) {
+         case LT:
+            return a < b;
+         case LE:
+            return a <= b;
+         case EQ:
+            return a == b;
+         case GE:
+            return a >= b;
+         case GT:
+            return a > b;
+         default:
+            return a != b;
+      }
+   }
+
+   public Comparison flip() {
+      switch (this) {
+         case LT:
+            return GT;
+         case LE:
+            return GE;
+         case GE:
+            return LE;
+         case GT:
+            return LT;
+         default:
+            return this;
+      }
+   }
+
+   public List<Interval> intervals(double bound) {
+      double min = Double.NEGATIVE_INFINITY;
+      double max = Double.POSITIVE_INFINITY;
+      switch (this) {
+         case LT:
+            return List.of(new Interval(min, true, bound, false));
+         case LE:
+            return List.of(new Interval(min, true, bound, true));
+         case EQ:
+            return List.of(new Interval(bound, true, bound, true));
+         case GE:
+            return List.of(new Interval(bound, true, max, true));
+         case GT:
+            return List.of(new Interval(bound, false, max, true));
+         default:
+            return List.of(new Interval(min, true, bound, false), new Interval(bound, false, max, true));
+      }
+   }
+
+   // Only the whitespace Nashorn skips between tokens is ignored, so a padded symbol is native exactly when the script would have read it as that operator.
+   public static Comparison of(String symbol) {
+      int from = 0;
+      int to = symbol.length();
+
+      while(from < to && isScriptWhitespace(symbol.charAt(from))) {
+         ++from;
+      }
+
+      while(to > from && isScriptWhitespace(symbol.charAt(to - 1))) {
+         --to;
+      }
+
+      String trimmed = symbol.substring(from, to);
+
+      for(Comparison comparison : values()) {
+         if (comparison.symbol.equals(trimmed)) {
+            return comparison;
+         }
+      }
+
+      return null;
+   }
+
+   private static boolean isScriptWhitespace(char c) {
+      switch (c) {
+         case '\t':
+         case '\n':
+         case '\u000b':
+         case '\f':
+         case '\r':
+         case ' ':
+         case '\u00a0':
+         case '\u2028':
+         case '\u2029':
+            return true;
+         default:
+            return Character.getType(c) == Character.SPACE_SEPARATOR;
+      }
+   }
+}
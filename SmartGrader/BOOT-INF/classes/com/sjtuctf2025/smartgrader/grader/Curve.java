@@ -0,0 +1,84 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns a curve into ordinary threshold rules. Each cutoff is the score of the last student inside the band's
+ * cumulative share, found by quickselect on one copy of the scores; because cutoffs are taken in rank order,
+ * each selection only partitions what the previous one left above it. Every student tied with a cutoff score
+ * gets the better grade, so a band can come out larger than its share but never splits equal scores. NaN
+ * scores are not ranked, and students past a curve that adds up to less than 100% get no grade.
+ */
+public final class Curve {
+   private Curve() {
+   }
+
+   public static List<GradeRule> rules(double[] scores, List<CurveRequest.Band> curve) {
+      double[] values = BandRules.ranked(scores);
+      BandRules rules = new BandRules(curve, values.length, "Curve adds up to");
+      // Ascending positions at or above this one are already partitioned off by an earlier selection.
+      int selectedFrom = values.length;
+
+      for(CurveRequest.Band band : curve) {
+         int position = rules.start(band);
+         if (position == selectedFrom) {
+            rules.addEmpty(band.grade());
+         } else {
+            rules.add(band.grade(), select(values, 0, selectedFrom, position));
+            selectedFrom = position;
+         }
+      }
+
+      return rules.rules();
+   }
+
+   // Rearranges a[from, to) so that a[k] holds the value a full sort would put there, with nothing larger before it and nothing smaller after it.
+   static double select(double[] a, int from, int to, int k) {
+      int lo = from;
+      int hi = to - 1;
+      int budget = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+
+      while(lo < hi) {
+         if (budget-- == 0) {
+            Arrays.sort(a, lo, hi + 1);
+            break;
+         }
+
+         int mid = lo + hi >>> 1;
+         double pivot = median(a[lo], a[mid], a[hi]);
+         int i = lo;
+         int j = hi;
+
+         while(i <= j) {
+            while(a[i] < pivot) {
+               ++i;
+            }
+
+            while(a[j] > pivot) {
+               --j;
+            }
+
+            if (i <= j) {
+               double t = a[i];
+               a[i++] = a[j];
+               a[j--] = t;
+            }
+         }
+
+         if (k <= j) {
+            hi = j;
+         } else if (k >= i) {
+            lo = i;
+         } else {
+            break;
+         }
+      }
+
+      return a[k];
+   }
+
+   private static double median(double a, double b, double c) {
+      return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+   }
+}
@@ -0,0 +1,107 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The body of {@code /api/grader/curve}: the scores and the curve as grades from best to worst, each with the
+ * percentage of students it should take, e.g. {@code [{"grade":"A","percent":10},{"grade":"B","percent":20}]}.
+ */
+@JsonDeserialize(using = CurveRequest.Deserializer.class)
+public final class CurveRequest {
+   private final double[] scores;
+   private final List<Band> curve;
+
+   public CurveRequest(double[] scores, List<Band> curve) {
+      this.scores = scores;
+      this.curve = curve;
+   }
+
+   public double[] scores() {
+      return this.scores;
+   }
+
+   public List<Band> curve() {
+      return this.curve;
+   }
+
+   public static final class Band {
+      private final String grade;
+      private final double percent;
+
+      public Band(String grade, double percent) {
+         this.grade = grade;
+         this.percent = percent;
+      }
+
+      public String grade() {
+         return this.grade;
+      }
+
+      public double percent() {
+         return this.percent;
+      }
+   }
+
+   public static final class Deserializer extends StdDeserializer<CurveRequest> {
+      public Deserializer() {
+         super(CurveRequest.class);
+      }
+
+      public CurveRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+         GradeRequest.expect(p, JsonToken.START_OBJECT);
+         double[] scores = null;
+         List<Band> curve = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("scores".equals(field)) {
+               scores = GradeRequest.readScores(p);
+            } else if ("curve".equals(field)) {
+               GradeRequest.expect(p, JsonToken.START_ARRAY);
+               curve = new ArrayList<>();
+
+               while(p.nextToken() != JsonToken.END_ARRAY) {
+                  curve.add(readBand(p));
+               }
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         return new CurveRequest(scores, curve);
+      }
+
+      static Band readBand(JsonParser p) throws IOException {
+         GradeRequest.expect(p, JsonToken.START_OBJECT);
+         String grade = null;
+         Double percent = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("grade".equals(field) && p.currentToken() == JsonToken.VALUE_STRING) {
+               grade = p.getText();
+            } else if ("percent".equals(field)) {
+               percent = GradeRequest.readScore(p);
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         if (grade == null || percent == null || !(percent >= 0.0)) {
+            throw JsonMappingException.from(p, "Curve bands need a grade and a non-negative percent");
+         }
+
+         return new Band(grade, percent);
+      }
+   }
+}
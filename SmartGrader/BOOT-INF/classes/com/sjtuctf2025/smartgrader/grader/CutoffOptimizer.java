@@ -0,0 +1,79 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chooses cutoffs that meet a target grade distribution from one sorted copy of the scores. A cumulative
+ * share maps to a position in the sorted scores; when that position falls inside a run of equal scores the
+ * whole run has to go one way, and binary search finds both ends of the run. By default the cutoff moves up
+ * so no grade exceeds its share; in nearest mode it takes whichever end is closer to the target. NaN scores
+ * are not ranked.
+ */
+public final class CutoffOptimizer {
+   private final List<GradeRule> rules;
+   private final long[] counts;
+
+   private CutoffOptimizer(List<GradeRule> rules, long[] counts) {
+      this.rules = rules;
+      this.counts = counts;
+   }
+
+   public static CutoffOptimizer optimize(double[] scores, List<CurveRequest.Band> targets, boolean nearest) {
+      double[] sorted = BandRules.ranked(scores);
+      int n = sorted.length;
+      BandRules rules = new BandRules(targets, n, "Targets add up to");
+      Arrays.sort(sorted);
+      long[] counts = new long[targets.size() + 1];
+      int previous = n;
+
+      for(int b = 0; b < targets.size(); ++b) {
+         CurveRequest.Band band = targets.get(b);
+         int target = rules.start(band);
+         int start = target;
+         if (target > 0 && target < n && sorted[target - 1] == sorted[target]) {
+            int up = search(sorted, n, sorted[target], true);
+            int down = search(sorted, n, sorted[target], false);
+            start = nearest && target - down < up - target ? down : up;
+         }
+
+         start = Math.min(start, previous);
+         counts[b + 1] = previous - start;
+         if (start == previous) {
+            rules.addEmpty(band.grade());
+         } else {
+            rules.add(band.grade(), sorted[start]);
+         }
+
+         previous = start;
+      }
+
+      counts[0] = previous + scores.length - n;
+      return new CutoffOptimizer(rules.rules(), counts);
+   }
+
+   public List<GradeRule> rules() {
+      return this.rules;
+   }
+
+   // Students per band, slot 0 for those below every cutoff or with NaN scores.
+   public long[] counts() {
+      return this.counts;
+   }
+
+   private static int search(double[] sorted, int n, double value, boolean inclusive) {
+      int lo = 0;
+      int hi = n;
+
+      while(lo < hi) {
+         int mid = lo + hi >>> 1;
+         if (sorted[mid] < value || inclusive && sorted[mid] == value) {
+            lo = mid + 1;
+         } else {
+            hi = mid;
+         }
+      }
+
+      return lo;
+   }
+}
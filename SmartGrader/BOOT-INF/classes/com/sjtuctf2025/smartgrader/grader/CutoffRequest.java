@@ -0,0 +1,74 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The body of {@code /api/grader/cutoffs}: the scores and a target share per grade from best to worst, in the
+ * same band format as a curve. Shares are upper bounds unless {@code "mode": "nearest"} asks for the cutoff
+ * whose share lands closest to the target.
+ */
+@JsonDeserialize(using = CutoffRequest.Deserializer.class)
+public final class CutoffRequest {
+   private final double[] scores;
+   private final List<CurveRequest.Band> targets;
+   private final boolean nearest;
+
+   public CutoffRequest(double[] scores, List<CurveRequest.Band> targets, boolean nearest) {
+      this.scores = scores;
+      this.targets = targets;
+      this.nearest = nearest;
+   }
+
+   public double[] scores() {
+      return this.scores;
+   }
+
+   public List<CurveRequest.Band> targets() {
+      return this.targets;
+   }
+
+   public boolean isNearest() {
+      return this.nearest;
+   }
+
+   public static final class Deserializer extends StdDeserializer<CutoffRequest> {
+      public Deserializer() {
+         super(CutoffRequest.class);
+      }
+
+      public CutoffRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+         GradeRequest.expect(p, JsonToken.START_OBJECT);
+         double[] scores = null;
+         List<CurveRequest.Band> targets = null;
+         boolean nearest = false;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("scores".equals(field)) {
+               scores = GradeRequest.readScores(p);
+            } else if ("targets".equals(field)) {
+               GradeRequest.expect(p, JsonToken.START_ARRAY);
+               targets = new ArrayList<>();
+
+               while(p.nextToken() != JsonToken.END_ARRAY) {
+                  targets.add(CurveRequest.Deserializer.readBand(p));
+               }
+            } else if ("mode".equals(field) && p.currentToken() == JsonToken.VALUE_STRING) {
+               nearest = "nearest".equals(p.getText());
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         return new CutoffRequest(scores, targets, nearest);
+      }
+   }
+}
@@ -0,0 +1,134 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.Arrays;
+
+/**
+ * The distinct values of a score column plus, for every position, which distinct value it holds.
+ * Keys are {@link Double#doubleToLongBits}, so {@code -0.0} and {@code 0.0} stay apart and every NaN is one key.
+ *
+ * <p>The per-position ids are written into the caller's result array and the hash table grows with the
+ * number of distinct values, so a batch costs memory in proportion to its distinct scores only.
+ */
+public final class DistinctScores {
+   public static final int SAMPLE_SIZE = 1024;
+   private static final int INITIAL_CAPACITY = 256;
+   private final double[] values;
+   private final int[] ids;
+
+   private DistinctScores(double[] values, int[] ids) {
+      this.values = values;
+      this.ids = ids;
+   }
+
+   // A strided sample that is nearly all distinct means the full column will not dedup well either.
+   public static boolean isWorthTrying(double[] scores) {
+      int sample = Math.min(SAMPLE_SIZE, scores.length);
+      int stride = scores.length / sample;
+      Table table = new Table();
+
+      for(int i = 0; i < sample; ++i) {
+         table.add(scores[i * stride], Integer.MAX_VALUE);
+      }
+
+      return table.count * 10 <= sample * 9;
+   }
+
+   public static DistinctScores of(double[] scores, int maxDistinct, int[] ids) {
+      Table table = new Table();
+
+      for(int i = 0; i < scores.length; ++i) {
+         int id = table.add(scores[i], maxDistinct);
+         if (id < 0) {
+            return null;
+         }
+
+         ids[i] = id;
+      }
+
+      return new DistinctScores(Arrays.copyOf(table.values, table.count), ids);
+   }
+
+   public int size() {
+      return this.values.length;
+   }
+
+   public void classify(ScoreClassifier classifier) {
+      int[] grades = new int[this.values.length];
+
+      for(int d = 0; d < grades.length; ++d) {
+         grades[d] = classifier.classify(this.values[d]);
+      }
+
+      for(int i = 0; i < this.ids.length; ++i) {
+         this.ids[i] = grades[this.ids[i]];
+      }
+   }
+
+   private static final class Table {
+      private long[] keys = new long[INITIAL_CAPACITY];
+      private int[] slots = newSlots(INITIAL_CAPACITY);
+      private double[] values = new double[INITIAL_CAPACITY / 2];
+      private int count;
+
+      int add(double score, int maxDistinct) {
+         long key = Double.doubleToLongBits(score);
+         int mask = this.keys.length - 1;
+         int slot = mix(key) & mask;
+
+         while(this.slots[slot] != -1) {
+            if (this.keys[slot] == key) {
+               return this.slots[slot];
+            }
+
+            slot = slot + 1 & mask;
+         }
+
+         if (this.count == maxDistinct) {
+            return -1;
+         }
+
+         if (this.count == this.values.length) {
+            this.grow();
+            return this.add(score, maxDistinct);
+         }
+
+         this.keys[slot] = key;
+         this.slots[slot] = this.count;
+         this.values[this.count] = score;
+         return this.count++;
+      }
+
+      private void grow() {
+         long[] oldKeys = this.keys;
+         int[] oldSlots = this.slots;
+         this.keys = new long[oldKeys.length * 2];
+         this.slots = newSlots(oldKeys.length * 2);
+         this.values = Arrays.copyOf(this.values, oldKeys.length);
+         int mask = this.keys.length - 1;
+
+         for(int s = 0; s < oldKeys.length; ++s) {
+            if (oldSlots[s] != -1) {
+               int slot = mix(oldKeys[s]) & mask;
+
+               while(this.slots[slot] != -1) {
+                  slot = slot + 1 & mask;
+               }
+
+               this.keys[slot] = oldKeys[s];
+               this.slots[slot] = oldSlots[s];
+            }
+         }
+      }
+
+      private static int[] newSlots(int capacity) {
+         int[] slots = new int[capacity];
+         Arrays.fill(slots, -1);
+         return slots;
+      }
+
+      private static int mix(long key) {
+         long h = key * -7046029254386353131L;
+         return (int)(h ^ h >>> 32);
+      }
+   }
+}
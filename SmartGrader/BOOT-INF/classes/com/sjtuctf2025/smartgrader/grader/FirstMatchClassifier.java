@@ -0,0 +1,54 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.List;
+
+public final class FirstMatchClassifier implements ScoreClassifier {
+   private final double[] lows;
+   private final double[] highs;
+   private final Comparison[] lowOps;
+   private final Comparison[] highOps;
+   private final String[] expressions;
+   private final ScriptEnginePool scriptEngines;
+
+   public FirstMatchClassifier(List<GradeRule> rules, ScriptEnginePool scriptEngines) {
+      int count = rules.size();
+      this.lows = new double[count];
+      this.highs = new double[count];
+      this.lowOps = new Comparison[count];
+      this.highOps = new Comparison[count];
+      this.expressions = new String[count];
+      this.scriptEngines = scriptEngines;
+
+      for(int i = 0; i < count; ++i) {
+         GradeRule rule = rules.get(i);
+         this.lows[i] = rule.leftScore();
+         this.highs[i] = rule.rightScore();
+         if (rule.isNative()) {
+            this.lowOps[i] = rule.left();
+            this.highOps[i] = rule.right();
+         } else if (!rule.isSymbolTooLong()) {
+            this.expressions[i] = rule.expression();
+         }
+      }
+   }
+
+   public int classify(double score) {
+      for(int i = 0; i < this.lows.length; ++i) {
+         Comparison lowOp = this.lowOps[i];
+         if (lowOp != null ? lowOp.test(this.lows[i], score) && this.highOps[i].test(score, this.highs[i]) : this.script(score, this.expressions[i])) {
+            return i;
+         }
+      }
+
+      return NO_MATCH;
+   }
+
+   private boolean script(double score, String expression) {
+      if (expression != null) {
+         return this.scriptEngines.test(expression, score);
+      } else {
+         System.out.println("Symbol too long!");
+         return false;
+      }
+   }
+}
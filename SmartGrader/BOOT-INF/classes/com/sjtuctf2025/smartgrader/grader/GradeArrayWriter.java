@@ -0,0 +1,54 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes grades as a JSON array of strings straight from the rule set's pre-encoded labels, so a response of
+ * any length costs one buffer and a byte copy per student instead of a String list and per-element escaping.
+ */
+public final class GradeArrayWriter {
+   public static final int BUFFER_SIZE = 16384;
+
+   private GradeArrayWriter() {
+   }
+
+   public static void write(OutputStream out, RuleSet ruleSet, int[] indices) throws IOException {
+      byte[][] labels = ruleSet.encodedLabels();
+      byte[] buffer = new byte[BUFFER_SIZE];
+      buffer[0] = '[';
+      int position = 1;
+
+      for(int i = 0; i < indices.length; ++i) {
+         byte[] label = labels[indices[i] + 1];
+         if (position + label.length + 1 > buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+            if (label.length + 1 > buffer.length) {
+               if (i > 0) {
+                  out.write(',');
+               }
+
+               out.write(label);
+               continue;
+            }
+         }
+
+         if (i > 0) {
+            buffer[position++] = ',';
+         }
+
+         System.arraycopy(label, 0, buffer, position, label.length);
+         position += label.length;
+      }
+
+      if (position == buffer.length) {
+         out.write(buffer, 0, position);
+         position = 0;
+      }
+
+      buffer[position++] = ']';
+      out.write(buffer, 0, position);
+      out.flush();
+   }
+}
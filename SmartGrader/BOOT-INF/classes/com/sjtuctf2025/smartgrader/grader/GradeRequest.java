@@ -0,0 +1,206 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The body of {@code /api/grader}, read token by token so scores go straight into a {@code double[]}
+ * without an intermediate tree. A request names its rules either inline or by a registered {@code ruleSetId},
+ * optionally pinned to a {@code version}.
+ */
+@JsonDeserialize(using = GradeRequest.Deserializer.class)
+public final class GradeRequest {
+   private final double[] scores;
+   private final List<GradeRule> rules;
+   private final String ruleSetId;
+   private final Integer version;
+
+   public GradeRequest(double[] scores, List<GradeRule> rules, String ruleSetId, Integer version) {
+      this.scores = scores;
+      this.rules = rules;
+      this.ruleSetId = ruleSetId;
+      this.version = version;
+   }
+
+   public double[] scores() {
+      return this.scores;
+   }
+
+   public List<GradeRule> rules() {
+      return this.rules;
+   }
+
+   public String ruleSetId() {
+      return this.ruleSetId;
+   }
+
+   public Integer version() {
+      return this.version;
+   }
+
+   public static double readScore(JsonParser p) throws IOException {
+      JsonToken token = p.currentToken();
+      if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+         return p.getDoubleValue();
+      } else if (token == JsonToken.VALUE_STRING) {
+         try {
+            return Double.parseDouble(p.getText());
+         } catch (NumberFormatException var3) {
+            throw JsonMappingException.from(p, "Not a number: " + p.getText());
+         }
+      } else {
+         throw JsonMappingException.from(p, "Not a number: " + token);
+      }
+   }
+
+   public static double[] readScores(JsonParser p) throws IOException {
+      expect(p, JsonToken.START_ARRAY);
+      double[] scores = new double[256];
+      int count = 0;
+
+      while(p.nextToken() != JsonToken.END_ARRAY) {
+         if (count == scores.length) {
+            scores = Arrays.copyOf(scores, count * 2);
+         }
+
+         scores[count++] = readScore(p);
+      }
+
+      return Arrays.copyOf(scores, count);
+   }
+
+   // Rules after a malformed one are dropped, matching what a per-score scan that stops at it used to return.
+   public static List<GradeRule> readRules(JsonParser p) throws IOException {
+      return readRules(p, false);
+   }
+
+   // Strictly, a malformed rule fails the whole read instead of cutting the list short.
+   public static List<GradeRule> readRules(JsonParser p, boolean strict) throws IOException {
+      expect(p, JsonToken.START_ARRAY);
+      List<GradeRule> rules = new ArrayList<>();
+      boolean valid = true;
+
+      while(p.nextToken() != JsonToken.END_ARRAY) {
+         if (!valid) {
+            p.skipChildren();
+         } else {
+            GradeRule rule = readRule(p);
+            if (rule != null) {
+               rules.add(rule);
+            } else if (strict) {
+               throw JsonMappingException.from(p, "Malformed rule at index " + rules.size());
+            } else {
+               valid = false;
+            }
+         }
+      }
+
+      return rules;
+   }
+
+   static GradeRule readRule(JsonParser p) throws IOException {
+      if (p.currentToken() != JsonToken.START_OBJECT) {
+         System.out.println("Rule is not an object");
+         p.skipChildren();
+         return null;
+      }
+
+      Double leftScore = null;
+      Double rightScore = null;
+      String leftSymbol = null;
+      String rightSymbol = null;
+      String grade = null;
+      String malformed = null;
+
+      while(p.nextToken() == JsonToken.FIELD_NAME) {
+         String field = p.currentName();
+         p.nextToken();
+
+         try {
+            switch (field) {
+               case "leftScore":
+                  leftScore = readScore(p);
+                  break;
+               case "rightScore":
+                  rightScore = readScore(p);
+                  break;
+               case "leftSymbol":
+                  leftSymbol = readString(p);
+                  break;
+               case "rightSymbol":
+                  rightSymbol = readString(p);
+                  break;
+               case "grade":
+                  grade = readString(p);
+                  break;
+               default:
+                  p.skipChildren();
+            }
+         } catch (JsonMappingException var10) {
+            malformed = field;
+            p.skipChildren();
+         }
+      }
+
+      if (malformed != null || leftScore == null || rightScore == null || leftSymbol == null || rightSymbol == null || grade == null) {
+         System.out.println("Malformed rule" + (malformed == null ? "" : ": " + malformed));
+         return null;
+      }
+
+      return new GradeRule(leftScore, leftSymbol, rightScore, rightSymbol, grade);
+   }
+
+   private static String readString(JsonParser p) throws IOException {
+      if (p.currentToken() != JsonToken.VALUE_STRING) {
+         throw JsonMappingException.from(p, "Not a string: " + p.currentToken());
+      }
+
+      return p.getText();
+   }
+
+   static void expect(JsonParser p, JsonToken token) throws IOException {
+      if (p.currentToken() != token) {
+         throw JsonMappingException.from(p, "Expected " + token + " but got " + p.currentToken());
+      }
+   }
+
+   public static final class Deserializer extends StdDeserializer<GradeRequest> {
+      public Deserializer() {
+         super(GradeRequest.class);
+      }
+
+      public GradeRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+         expect(p, JsonToken.START_OBJECT);
+         double[] scores = null;
+         List<GradeRule> rules = null;
+         String ruleSetId = null;
+         Integer version = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("scores".equals(field)) {
+               scores = readScores(p);
+            } else if ("rules".equals(field)) {
+               rules = readRules(p);
+            } else if ("ruleSetId".equals(field) && p.currentToken() == JsonToken.VALUE_STRING) {
+               ruleSetId = p.getText();
+            } else if ("version".equals(field) && p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+               version = p.getIntValue();
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         return new GradeRequest(scores, rules, ruleSetId, version);
+      }
+   }
+}
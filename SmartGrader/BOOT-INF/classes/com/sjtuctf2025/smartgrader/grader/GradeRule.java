@@ -0,0 +1,118 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE, isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+public final class GradeRule {
+   public static final int MAX_SYMBOL_LENGTH = 24;
+   private final double leftScore;
+   private final String leftSymbol;
+   private final double rightScore;
+   private final String rightSymbol;
+   private final String grade;
+   @JsonIgnore
+   private final Comparison left;
+   @JsonIgnore
+   private final Comparison right;
+
+   public GradeRule(double leftScore, String leftSymbol, double rightScore, String rightSymbol, String grade) {
+      this.leftScore = leftScore;
+      this.leftSymbol = leftSymbol;
+      this.rightScore = rightScore;
+      this.rightSymbol = rightSymbol;
+      this.grade = grade;
+      // An over-long symbol was never evaluated, so it must not become native just because it trims to an operator.
+      boolean tooLong = this.isSymbolTooLong();
+      this.left = tooLong ? null : Comparison.of(leftSymbol);
+      this.right = tooLong ? null : Comparison.of(rightSymbol);
+   }
+
+   public double leftScore() {
+      return this.leftScore;
+   }
+
+   public String leftSymbol() {
+      return this.leftSymbol;
+   }
+
+   public double rightScore() {
+      return this.rightScore;
+   }
+
+   public String rightSymbol() {
+      return this.rightSymbol;
+   }
+
+   public String grade() {
+      return this.grade;
+   }
+
+   public Comparison left() {
+      return this.left;
+   }
+
+   public Comparison right() {
+      return this.right;
+   }
+
+   public boolean isNative() {
+      return this.left != null && this.right != null;
+   }
+
+   public boolean isSymbolTooLong() {
+      return this.leftSymbol.length() > MAX_SYMBOL_LENGTH || this.rightSymbol.length() > MAX_SYMBOL_LENGTH;
+   }
+
+   public boolean matches(double score) {
+      return this.left.test(this.leftScore, score) && this.right.test(score, this.rightScore);
+   }
+
+   public List<Interval> intervals() {
+      if (!this.isNative() || Double.isNaN(this.leftScore) || Double.isNaN(this.rightScore)) {
+         return null;
+      }
+
+      List<Interval> intervals = new ArrayList<>();
+
+      for(Interval a : this.left.flip().intervals(this.leftScore)) {
+         for(Interval b : this.right.intervals(this.rightScore)) {
+            Interval both = a.intersect(b);
+            if (!both.isEmpty()) {
+               intervals.add(both);
+            }
+         }
+      }
+
+      return intervals;
+   }
+
+   public String expression() {
+      return "(" + this.leftScore + this.leftSymbol + "x && x" + this.rightSymbol + this.rightScore + ")";
+   }
+
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      } else if (!(o instanceof GradeRule)) {
+         return false;
+      } else {
+         GradeRule other = (GradeRule)o;
+         return Double.doubleToRawLongBits(this.leftScore) == Double.doubleToRawLongBits(other.leftScore)
+            && Double.doubleToRawLongBits(this.rightScore) == Double.doubleToRawLongBits(other.rightScore)
+            && this.leftSymbol.equals(other.leftSymbol)
+            && this.rightSymbol.equals(other.rightSymbol)
+            && this.grade.equals(other.grade);
+      }
+   }
+
+   public int hashCode() {
+      int h = Long.hashCode(Double.doubleToRawLongBits(this.leftScore));
+      h = 31 * h + Long.hashCode(Double.doubleToRawLongBits(this.rightScore));
+      h = 31 * h + this.leftSymbol.hashCode();
+      h = 31 * h + this.rightSymbol.hashCode();
+      return 31 * h + this.grade.hashCode();
+   }
+}
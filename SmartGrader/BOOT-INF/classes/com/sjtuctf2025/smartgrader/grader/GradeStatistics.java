@@ -0,0 +1,104 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grade counts, moments and a quantile sketch for one batch, accumulated chunk by chunk while the chunk is
+ * still in cache from grading. Each chunk gets its own part with an exact two-pass mean and sum of squared
+ * deviations, and parts combine with Chan's pairwise update, so parallel chunks never rescan the scores.
+ * NaN and infinite scores are counted per grade but left out of the moments and percentiles.
+ */
+public final class GradeStatistics {
+   public static final double[] PERCENTILES = {0.1, 0.25, 0.5, 0.75, 0.9};
+   private final long[] counts;
+   private final QuantileSketch sketch = new QuantileSketch();
+   private long total;
+   private long finite;
+   private double mean;
+   private double m2;
+
+   public GradeStatistics(int grades) {
+      // Slot 0 counts scores no rule matched.
+      this.counts = new long[grades + 1];
+   }
+
+   GradeStatistics part() {
+      return new GradeStatistics(this.counts.length - 1);
+   }
+
+   void add(double[] scores, int[] indices, int from, int to) {
+      long finite = 0;
+      double sum = 0.0;
+
+      for(int i = from; i < to; ++i) {
+         ++this.counts[indices[i] + 1];
+         double score = scores[i];
+         if (Double.isFinite(score)) {
+            ++finite;
+            sum += score;
+            this.sketch.add(score);
+         }
+      }
+
+      double mean = finite == 0 ? 0.0 : sum / finite;
+      double m2 = 0.0;
+
+      for(int i = from; i < to; ++i) {
+         double score = scores[i];
+         if (Double.isFinite(score)) {
+            m2 += (score - mean) * (score - mean);
+         }
+      }
+
+      this.total += to - from;
+      this.combine(finite, mean, m2);
+   }
+
+   synchronized void merge(GradeStatistics other) {
+      for(int i = 0; i < this.counts.length; ++i) {
+         this.counts[i] += other.counts[i];
+      }
+
+      this.total += other.total;
+      this.sketch.merge(other.sketch);
+      this.combine(other.finite, other.mean, other.m2);
+   }
+
+   public synchronized Map<String, Object> toMap(RuleSet ruleSet) {
+      Map<String, Object> stats = new LinkedHashMap<>();
+      stats.put("count", this.total);
+      stats.put("grades", RuleSet.countsByGrade(ruleSet.rules(), this.counts));
+      if (this.finite < this.total) {
+         stats.put("excluded", this.total - this.finite);
+      }
+
+      if (this.finite > 0) {
+         stats.put("mean", this.mean);
+         stats.put("stddev", Math.sqrt(this.m2 / this.finite));
+         stats.put("min", this.sketch.min());
+         stats.put("max", this.sketch.max());
+         Map<String, Double> percentiles = new LinkedHashMap<>();
+
+         for(double p : PERCENTILES) {
+            percentiles.put("p" + Math.round(p * 100), this.sketch.quantile(p));
+         }
+
+         stats.put("percentiles", percentiles);
+      }
+
+      return stats;
+   }
+
+   private void combine(long n, double mean, double m2) {
+      if (n == 0) {
+         return;
+      }
+
+      long combined = this.finite + n;
+      double delta = mean - this.mean;
+      this.mean += delta * n / combined;
+      this.m2 += m2 + delta * delta * ((double)this.finite * n / combined);
+      this.finite = combined;
+   }
+}
@@ -0,0 +1,57 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GraderMetrics {
+   private final AtomicLong batches = new AtomicLong();
+   private final AtomicLong scores = new AtomicLong();
+   private final AtomicLong lookupTableBatches = new AtomicLong();
+   private final AtomicLong vectorBatches = new AtomicLong();
+   private final AtomicLong parallelBatches = new AtomicLong();
+   private final AtomicLong dedupBatches = new AtomicLong();
+   private final AtomicLong dedupScores = new AtomicLong();
+   private final AtomicLong dedupDistinct = new AtomicLong();
+   private volatile Double lastDedupRatio;
+
+   public void batch(int size) {
+      this.batches.incrementAndGet();
+      this.scores.addAndGet(size);
+   }
+
+   public void lookupTable() {
+      this.lookupTableBatches.incrementAndGet();
+   }
+
+   public void vector() {
+      this.vectorBatches.incrementAndGet();
+   }
+
+   public void parallel() {
+      this.parallelBatches.incrementAndGet();
+   }
+
+   public void dedup(int size, int distinct) {
+      this.dedupBatches.incrementAndGet();
+      this.dedupScores.addAndGet(size);
+      this.dedupDistinct.addAndGet(distinct);
+      this.lastDedupRatio = (double)distinct / size;
+   }
+
+   public Map<String, Object> stats() {
+      Map<String, Object> stats = new LinkedHashMap<>();
+      stats.put("batches", this.batches.get());
+      stats.put("scores", this.scores.get());
+      stats.put("lookupTableBatches", this.lookupTableBatches.get());
+      stats.put("vectorBatches", this.vectorBatches.get());
+      stats.put("parallelBatches", this.parallelBatches.get());
+      stats.put("dedupBatches", this.dedupBatches.get());
+      long deduped = this.dedupScores.get();
+      stats.put("dedupRatio", deduped == 0L ? null : (double)this.dedupDistinct.get() / deduped);
+      stats.put("lastDedupRatio", this.lastDedupRatio);
+      return stats;
+   }
+}
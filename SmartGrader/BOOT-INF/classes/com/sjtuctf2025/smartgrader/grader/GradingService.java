@@ -0,0 +1,143 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class GradingService {
+   public static final int MIN_DEDUP_SCORES = 256;
+   public static final double MAX_DEDUP_RATIO = 0.25;
+   public static final int MIN_CHUNK = 8192;
+   private static final String VECTOR_MODULE = "jdk.incubator.vector";
+   private final GraderMetrics metrics;
+   private final BatchKernel vectorKernel;
+   private final int parallelThreshold;
+   private final int parallelism;
+   private final ForkJoinPool pool;
+
+   public GradingService(GraderMetrics metrics, @Value("${grader.vector.enabled:false}") boolean vectorEnabled,
+                         @Value("${grader.parallel.threshold:65536}") int parallelThreshold,
+                         @Value("${grader.parallel.parallelism:0}") int parallelism) {
+      this.metrics = metrics;
+      this.vectorKernel = vectorEnabled ? loadVectorKernel() : null;
+      this.parallelThreshold = Math.max(MIN_CHUNK, parallelThreshold);
+      this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+      this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+   }
+
+   public int[] classify(double[] scores, RuleSet ruleSet) {
+      return this.classify(scores, ruleSet, null);
+   }
+
+   // With statistics, each chunk is summarised right after it is graded; the dedup path is skipped since it grades values, not positions.
+   public int[] classify(double[] scores, RuleSet ruleSet, GradeStatistics statistics) {
+      this.metrics.batch(scores.length);
+      int[] indices = new int[scores.length];
+      ScoreClassifier classifier = LookupTable.wrap(scores, ruleSet.classifier(), ruleSet.lookupTable());
+      if (classifier instanceof LookupTable) {
+         ruleSet.lookupTable((LookupTable)classifier);
+         this.metrics.lookupTable();
+      } else if (this.vectorKernel != null && this.vectorKernel.supports(ruleSet.rules())) {
+         List<GradeRule> rules = ruleSet.rules();
+         this.metrics.vector();
+         this.forEachRange(scores.length, summarised(scores, indices, statistics, (from, to) -> this.vectorKernel.classify(scores, from, to, rules, indices)));
+         return indices;
+      } else if (statistics == null && scores.length >= MIN_DEDUP_SCORES && DistinctScores.isWorthTrying(scores)) {
+         DistinctScores distinct = DistinctScores.of(scores, (int)(scores.length * MAX_DEDUP_RATIO), indices);
+         if (distinct != null) {
+            this.metrics.dedup(scores.length, distinct.size());
+            distinct.classify(classifier);
+            return indices;
+         }
+      }
+
+      this.forEachRange(scores.length, summarised(scores, indices, statistics, (from, to) -> {
+         for(int i = from; i < to; ++i) {
+            indices[i] = classifier.classify(scores[i]);
+         }
+      }));
+      return indices;
+   }
+
+   @PreDestroy
+   public void close() {
+      if (this.pool != null) {
+         this.pool.shutdown();
+      }
+   }
+
+   // Large batches are split into chunks on a pool of grader.parallel.parallelism workers, each writing its own slice.
+   private void forEachRange(int size, Range range) {
+      if (this.pool != null && size >= this.parallelThreshold) {
+         this.metrics.parallel();
+         int chunk = Math.max(MIN_CHUNK, size / (4 * this.parallelism));
+         this.pool.invoke(new RangeTask(range, 0, size, chunk));
+      } else {
+         range.run(0, size);
+      }
+   }
+
+   private static Range summarised(double[] scores, int[] indices, GradeStatistics statistics, Range range) {
+      if (statistics == null) {
+         return range;
+      }
+
+      return (from, to) -> {
+         GradeStatistics part = statistics.part();
+
+         for(int start = from; start < to; start += MIN_CHUNK) {
+            int end = Math.min(to, start + MIN_CHUNK);
+            range.run(start, end);
+            part.add(scores, indices, start, end);
+         }
+
+         statistics.merge(part);
+      };
+   }
+
+   private static BatchKernel loadVectorKernel() {
+      if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+         System.out.println(VECTOR_MODULE + " is not available, grading stays scalar");
+         return null;
+      }
+
+      try {
+         return (BatchKernel)Class.forName("com.sjtuctf2025.smartgrader.grader.VectorKernel").getDeclaredConstructor().newInstance();
+      } catch (LinkageError | ReflectiveOperationException var1) {
+         System.out.println(var1.getMessage());
+         return null;
+      }
+   }
+
+   @FunctionalInterface
+   private interface Range {
+      void run(int from, int to);
+   }
+
+   private static final class RangeTask extends RecursiveAction {
+      private final Range range;
+      private final int from;
+      private final int to;
+      private final int chunk;
+
+      RangeTask(Range range, int from, int to, int chunk) {
+         this.range = range;
+         this.from = from;
+         this.to = to;
+         this.chunk = chunk;
+      }
+
+      protected void compute() {
+         if (this.to - this.from <= this.chunk) {
+            this.range.run(this.from, this.to);
+         } else {
+            int mid = this.from + this.to >>> 1;
+            invokeAll(new RangeTask(this.range, this.from, mid, this.chunk), new RangeTask(this.range, mid, this.to, this.chunk));
+         }
+      }
+   }
+}
@@ -0,0 +1,323 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A score column held between requests so that a rule edit only regrades the students it can affect. A
+ * student's first match can only change if their score lies in the old or new range of an edited rule, so
+ * those ranges are looked up in a sorted copy of the column and nothing else is touched. A script rule has
+ * no known range and makes every student affected.
+ *
+ * <p>The next rule set is compiled outside the session lock, since that can wait on the rule set cache or a
+ * script engine; an edit that loses the race to another one is redone on top of it.
+ */
+public final class GradingSession {
+   private static final int RADIX_BITS = 11;
+   private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+   private final String id;
+   private final double[] scores;
+   private final double[] sorted;
+   private final int[] order;
+   private final int ordered;
+   // Indexed like sorted, not like scores.
+   private final String[] grades;
+   private final ReentrantLock lock = new ReentrantLock();
+   private RuleSet ruleSet;
+   private int version;
+   private volatile long lastUsed = System.nanoTime();
+
+   GradingSession(String id, double[] scores, RuleSet ruleSet, int[] indices) {
+      this.id = id;
+      this.scores = scores;
+      this.sorted = new double[scores.length];
+      this.order = sortedOrder(scores, this.sorted);
+      this.grades = new String[scores.length];
+      this.ruleSet = ruleSet;
+      this.version = 1;
+      int ordered = scores.length;
+
+      for(int i = 0; i < scores.length; ++i) {
+         if (Double.isNaN(this.sorted[i]) && ordered == scores.length) {
+            ordered = i;
+         }
+
+         this.grades[i] = ruleSet.label(indices[this.order[i]]);
+      }
+
+      this.ordered = ordered;
+   }
+
+   public String id() {
+      return this.id;
+   }
+
+   public int version() {
+      this.lock.lock();
+
+      try {
+         return this.version;
+      } finally {
+         this.lock.unlock();
+      }
+   }
+
+   public List<GradeRule> rules() {
+      this.lock.lock();
+
+      try {
+         return this.ruleSet.rules();
+      } finally {
+         this.lock.unlock();
+      }
+   }
+
+   public String[] grades() {
+      String[] grades = new String[this.grades.length];
+      this.lock.lock();
+
+      try {
+         for(int i = 0; i < grades.length; ++i) {
+            grades[this.order[i]] = this.grades[i];
+         }
+      } finally {
+         this.lock.unlock();
+      }
+
+      return grades;
+   }
+
+   public int size() {
+      return this.scores.length;
+   }
+
+   long lastUsed() {
+      return this.lastUsed;
+   }
+
+   void touch() {
+      this.lastUsed = System.nanoTime();
+   }
+
+   public Delta apply(RuleEdits edits, RuleCompiler compiler) {
+      return this.apply(current -> edits, compiler);
+   }
+
+   public Delta apply(List<GradeRule> rules, RuleCompiler compiler) {
+      return this.apply(current -> RuleEdits.diff(current, rules), compiler);
+   }
+
+   private Delta apply(Function<List<GradeRule>, RuleEdits> editsFor, RuleCompiler compiler) {
+      while(true) {
+         int base;
+         List<GradeRule> rules;
+         BitSet affected = new BitSet(this.scores.length);
+         this.lock.lock();
+
+         try {
+            base = this.version;
+            rules = new ArrayList<>(this.ruleSet.rules());
+            RuleEdits edits = editsFor.apply(this.ruleSet.rules());
+            if (edits.version() != null && edits.version() != base) {
+               throw new IllegalStateException("Session " + this.id + " is at version " + base);
+            }
+
+            for(RuleEdits.Edit edit : edits.changes()) {
+               GradeRule previous = edit.applyTo(rules);
+               if (previous != null) {
+                  this.mark(previous, affected);
+               }
+
+               if (edit.rule() != null) {
+                  this.mark(edit.rule(), affected);
+               }
+            }
+         } finally {
+            this.lock.unlock();
+         }
+
+         if (!RuleSet.isWithinLimits(rules)) {
+            throw new IllegalArgumentException("Too many rules!");
+         }
+
+         // A != rule can match NaN, and NaN scores sit past the sorted range, so they are always rechecked.
+         affected.set(this.ordered, this.scores.length);
+         RuleSet next = compiler.compile(rules);
+         this.lock.lock();
+
+         try {
+            if (this.version == base) {
+               return this.regrade(next, affected);
+            }
+         } finally {
+            this.lock.unlock();
+         }
+      }
+   }
+
+   private Delta regrade(RuleSet next, BitSet affected) {
+      ScoreClassifier classifier = next.classifier();
+      int[] changed = new int[16];
+      String[] changedGrades = new String[16];
+      int count = 0;
+
+      for(int i = affected.nextSetBit(0); i >= 0; i = affected.nextSetBit(i + 1)) {
+         String grade = next.label(classifier.classify(this.sorted[i]));
+         if (!grade.equals(this.grades[i])) {
+            this.grades[i] = grade;
+            if (count == changed.length) {
+               changed = Arrays.copyOf(changed, count * 2);
+               changedGrades = Arrays.copyOf(changedGrades, count * 2);
+            }
+
+            changed[count] = this.order[i];
+            changedGrades[count++] = grade;
+         }
+      }
+
+      this.ruleSet = next;
+      ++this.version;
+      return new Delta(this.version, affected.cardinality(), Arrays.copyOf(changed, count), Arrays.copyOf(changedGrades, count));
+   }
+
+   private void mark(GradeRule rule, BitSet affected) {
+      List<Interval> intervals = rule.intervals();
+      if (intervals == null) {
+         affected.set(0, this.scores.length);
+         return;
+      }
+
+      for(Interval interval : intervals) {
+         int from = interval.isLoClosed() ? this.firstAtLeast(interval.lo()) : this.firstAbove(interval.lo());
+         int to = interval.isHiClosed() ? this.firstAbove(interval.hi()) : this.firstAtLeast(interval.hi());
+         if (from < to) {
+            affected.set(from, to);
+         }
+      }
+   }
+
+   private int firstAtLeast(double x) {
+      int lo = 0;
+      int hi = this.ordered;
+
+      while(lo < hi) {
+         int mid = lo + hi >>> 1;
+         if (this.sorted[mid] < x) {
+            lo = mid + 1;
+         } else {
+            hi = mid;
+         }
+      }
+
+      return lo;
+   }
+
+   private int firstAbove(double x) {
+      int lo = 0;
+      int hi = this.ordered;
+
+      while(lo < hi) {
+         int mid = lo + hi >>> 1;
+         if (this.sorted[mid] <= x) {
+            lo = mid + 1;
+         } else {
+            hi = mid;
+         }
+      }
+
+      return lo;
+   }
+
+   // Stable LSD radix sort over order-preserving long keys, so ties keep their positions and the order matches
+   // Double.compare: -0.0 before 0.0, NaN last. Fills sorted and returns the original position of each entry.
+   private static int[] sortedOrder(double[] scores, double[] sorted) {
+      int n = scores.length;
+      long[] keys = new long[n];
+      int[] order = new int[n];
+
+      for(int i = 0; i < n; ++i) {
+         long bits = Double.doubleToLongBits(scores[i]);
+         keys[i] = bits ^ (bits >> 63 | Long.MIN_VALUE);
+         order[i] = i;
+      }
+
+      long[] nextKeys = new long[n];
+      int[] nextOrder = new int[n];
+      int[] counts = new int[1 << RADIX_BITS];
+
+      for(int shift = 0; shift < 64 && n > 0; shift += RADIX_BITS) {
+         Arrays.fill(counts, 0);
+
+         for(int i = 0; i < n; ++i) {
+            ++counts[(int)(keys[i] >>> shift) & RADIX_MASK];
+         }
+
+         // A digit every key shares leaves the order as it is.
+         if (counts[(int)(keys[0] >>> shift) & RADIX_MASK] == n) {
+            continue;
+         }
+
+         int sum = 0;
+
+         for(int d = 0; d < counts.length; ++d) {
+            int count = counts[d];
+            counts[d] = sum;
+            sum += count;
+         }
+
+         for(int i = 0; i < n; ++i) {
+            int p = counts[(int)(keys[i] >>> shift) & RADIX_MASK]++;
+            nextKeys[p] = keys[i];
+            nextOrder[p] = order[i];
+         }
+
+         long[] swapKeys = keys;
+         keys = nextKeys;
+         nextKeys = swapKeys;
+         int[] swapOrder = order;
+         order = nextOrder;
+         nextOrder = swapOrder;
+      }
+
+      for(int i = 0; i < n; ++i) {
+         long key = keys[i];
+         sorted[i] = Double.longBitsToDouble(key < 0L ? key ^ Long.MIN_VALUE : ~key);
+      }
+
+      return order;
+   }
+
+   public static final class Delta {
+      private final int version;
+      private final int regraded;
+      private final int[] indices;
+      private final String[] grades;
+
+      Delta(int version, int regraded, int[] indices, String[] grades) {
+         this.version = version;
+         this.regraded = regraded;
+         this.indices = indices;
+         this.grades = grades;
+      }
+
+      public int version() {
+         return this.version;
+      }
+
+      public int regraded() {
+         return this.regraded;
+      }
+
+      public int[] indices() {
+         return this.indices;
+      }
+
+      public String[] grades() {
+         return this.grades;
+      }
+   }
+}
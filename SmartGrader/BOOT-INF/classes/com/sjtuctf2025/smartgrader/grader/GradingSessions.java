@@ -0,0 +1,91 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Open grading sessions by id. A session unused for the idle timeout is dropped, and when the table is full a
+ * new session pushes out the least recently used one, so abandoned sessions never lock out new clients. Each
+ * session also holds at most a configured number of scores, so the table as a whole has a fixed memory bound.
+ */
+@Component
+public class GradingSessions {
+   private final GradingService gradingService;
+   private final int maxEntries;
+   private final int maxScores;
+   private final long idleTimeoutNanos;
+   private final ConcurrentHashMap<String, GradingSession> sessions = new ConcurrentHashMap<>();
+
+   public GradingSessions(GradingService gradingService, @Value("${grader.sessions.max-entries:256}") int maxEntries,
+                          @Value("${grader.session.max-scores:100000}") int maxScores,
+                          @Value("${grader.sessions.idle-timeout-ms:1800000}") long idleTimeoutMillis) {
+      this.gradingService = gradingService;
+      this.maxEntries = Math.max(1, maxEntries);
+      this.maxScores = maxScores;
+      this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+   }
+
+   // Throws IllegalArgumentException above the per-session score limit, before anything is graded or stored.
+   public GradingSession open(double[] scores, RuleSet ruleSet) {
+      if (scores.length > this.maxScores) {
+         throw new IllegalArgumentException("A session holds at most " + this.maxScores + " scores");
+      }
+
+      int[] indices = this.gradingService.classify(scores, ruleSet);
+      GradingSession session = new GradingSession(UUID.randomUUID().toString(), scores, ruleSet, indices);
+      this.makeRoom();
+      this.sessions.put(session.id(), session);
+      return session;
+   }
+
+   public GradingSession get(String id) {
+      GradingSession session = this.sessions.get(id);
+      if (session == null) {
+         return null;
+      }
+
+      if (this.isExpired(session, System.nanoTime())) {
+         this.sessions.remove(id, session);
+         return null;
+      }
+
+      session.touch();
+      return session;
+   }
+
+   public boolean close(String id) {
+      return this.sessions.remove(id) != null;
+   }
+
+   private void makeRoom() {
+      if (this.sessions.size() < this.maxEntries) {
+         return;
+      }
+
+      long now = System.nanoTime();
+      this.sessions.values().removeIf(session -> this.isExpired(session, now));
+
+      while(this.sessions.size() >= this.maxEntries) {
+         GradingSession eldest = null;
+
+         for(GradingSession session : this.sessions.values()) {
+            if (eldest == null || session.lastUsed() - eldest.lastUsed() < 0L) {
+               eldest = session;
+            }
+         }
+
+         if (eldest == null) {
+            return;
+         }
+
+         this.sessions.remove(eldest.id(), eldest);
+      }
+   }
+
+   private boolean isExpired(GradingSession session, long now) {
+      return now - session.lastUsed() > this.idleTimeoutNanos;
+   }
+}
@@ -0,0 +1,73 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+public final class Interval {
+   private final double lo;
+   private final boolean loClosed;
+   private final double hi;
+   private final boolean hiClosed;
+
+   public Interval(double lo, boolean loClosed, double hi, boolean hiClosed) {
+      this.lo = lo + 0.0;
+      this.loClosed = loClosed;
+      this.hi = hi + 0.0;
+      this.hiClosed = hiClosed;
+   }
+
+   public double lo() {
+      return this.lo;
+   }
+
+   public boolean isLoClosed() {
+      return this.loClosed;
+   }
+
+   public double hi() {
+      return this.hi;
+   }
+
+   public boolean isHiClosed() {
+      return this.hiClosed;
+   }
+
+   public boolean isEmpty() {
+      return this.lo > this.hi || this.lo == this.hi && !(this.loClosed && this.hiClosed);
+   }
+
+   public boolean contains(double x) {
+      return (this.loClosed ? this.lo <= x : this.lo < x) && (this.hiClosed ? x <= this.hi : x < this.hi);
+   }
+
+   public Interval intersect(Interval other) {
+      double lo;
+      boolean loClosed;
+      if (this.lo == other.lo) {
+         lo = this.lo;
+         loClosed = this.loClosed && other.loClosed;
+      } else if (this.lo > other.lo) {
+         lo = this.lo;
+         loClosed = this.loClosed;
+      } else {
+         lo = other.lo;
+         loClosed = other.loClosed;
+      }
+
+      double hi;
+      boolean hiClosed;
+      if (this.hi == other.hi) {
+         hi = this.hi;
+         hiClosed = this.hiClosed && other.hiClosed;
+      } else if (this.hi < other.hi) {
+         hi = this.hi;
+         hiClosed = this.hiClosed;
+      } else {
+         hi = other.hi;
+         hiClosed = other.hiClosed;
+      }
+
+      return new Interval(lo, loClosed, hi, hiClosed);
+   }
+
+   public String toString() {
+      return (this.loClosed ? "[" : "(") + this.lo + ", " + this.hi + (this.hiClosed ? "]" : ")");
+   }
+}
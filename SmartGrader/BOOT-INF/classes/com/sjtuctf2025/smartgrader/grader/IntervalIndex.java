@@ -0,0 +1,160 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grades a score by binary search over the sorted rule boundaries.
+ *
+ * <p>The boundaries split the number line into alternating open gaps and single points, so
+ * {@code winners[2k]} holds the rule for the gap below {@code bounds[k]} and {@code winners[2k + 1]}
+ * the rule for {@code bounds[k]} itself. That keeps open and closed endpoints exact.
+ *
+ * <p>Overlapping rules are resolved while building: rules paint the atoms they cover in list order and
+ * an atom keeps the first rule that reached it, which is the same winner the first-match scan picks.
+ */
+public final class IntervalIndex implements ScoreClassifier {
+   private final double[] bounds;
+   private final int[] winners;
+   private final int nanWinner;
+
+   private IntervalIndex(double[] bounds, int[] winners, int nanWinner) {
+      this.bounds = bounds;
+      this.winners = winners;
+      this.nanWinner = nanWinner;
+   }
+
+   public static IntervalIndex build(List<GradeRule> rules) {
+      List<List<Interval>> covers = new ArrayList<>(rules.size());
+      int count = 2;
+
+      for(GradeRule rule : rules) {
+         List<Interval> intervals = rule.intervals();
+         if (intervals == null) {
+            return null;
+         }
+
+         covers.add(intervals);
+         count += 2 * intervals.size();
+      }
+
+      double[] endpoints = new double[count];
+      count = 0;
+      endpoints[count++] = Double.NEGATIVE_INFINITY;
+      endpoints[count++] = Double.POSITIVE_INFINITY;
+
+      for(List<Interval> intervals : covers) {
+         for(Interval interval : intervals) {
+            endpoints[count++] = interval.lo();
+            endpoints[count++] = interval.hi();
+         }
+      }
+
+      double[] bounds = distinct(endpoints, count);
+      int[] winners = new int[2 * bounds.length + 1];
+      Arrays.fill(winners, NO_MATCH);
+      int[] next = new int[winners.length + 1];
+
+      for(int atom = 0; atom < next.length; ++atom) {
+         next[atom] = atom;
+      }
+
+      for(int i = 0; i < covers.size(); ++i) {
+         for(Interval interval : covers.get(i)) {
+            int start = 2 * lowerBound(bounds, interval.lo()) + (interval.isLoClosed() ? 1 : 2);
+            int end = 2 * lowerBound(bounds, interval.hi()) + (interval.isHiClosed() ? 1 : 0);
+
+            for(int atom = unpainted(next, start); atom <= end; atom = unpainted(next, atom + 1)) {
+               winners[atom] = i;
+               next[atom] = atom + 1;
+            }
+         }
+      }
+
+      int nanWinner = NO_MATCH;
+
+      for(int i = 0; i < rules.size(); ++i) {
+         if (rules.get(i).matches(Double.NaN)) {
+            nanWinner = i;
+            break;
+         }
+      }
+
+      return new IntervalIndex(bounds, winners, nanWinner);
+   }
+
+   public int classify(double score) {
+      if (score != score) {
+         return this.nanWinner;
+      }
+
+      int k = lowerBound(this.bounds, score);
+      return k < this.bounds.length && this.bounds[k] == score ? this.winners[2 * k + 1] : this.winners[2 * k];
+   }
+
+   double[] bounds() {
+      return this.bounds;
+   }
+
+   int[] winners() {
+      return this.winners;
+   }
+
+   int nanWinner() {
+      return this.nanWinner;
+   }
+
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      } else if (!(o instanceof IntervalIndex)) {
+         return false;
+      } else {
+         IntervalIndex other = (IntervalIndex)o;
+         return this.nanWinner == other.nanWinner && Arrays.equals(this.bounds, other.bounds) && Arrays.equals(this.winners, other.winners);
+      }
+   }
+
+   public int hashCode() {
+      return 31 * (31 * Arrays.hashCode(this.bounds) + Arrays.hashCode(this.winners)) + this.nanWinner;
+   }
+
+   private static double[] distinct(double[] values, int count) {
+      Arrays.sort(values, 0, count);
+      int size = 0;
+
+      for(int i = 0; i < count; ++i) {
+         if (size == 0 || values[size - 1] != values[i]) {
+            values[size++] = values[i];
+         }
+      }
+
+      return Arrays.copyOf(values, size);
+   }
+
+   private static int unpainted(int[] next, int atom) {
+      while(next[atom] != atom) {
+         next[atom] = next[next[atom]];
+         atom = next[atom];
+      }
+
+      return atom;
+   }
+
+   private static int lowerBound(double[] bounds, double value) {
+      int lo = 0;
+      int hi = bounds.length;
+
+      while(lo < hi) {
+         int mid = lo + hi >>> 1;
+         if (bounds[mid] < value) {
+            lo = mid + 1;
+         } else {
+            hi = mid;
+         }
+      }
+
+      return lo;
+   }
+}
@@ -0,0 +1,197 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+/**
+ * A mergeable quantile sketch in the style of DDSketch: values fall into logarithmic buckets whose width is a
+ * fixed fraction of their magnitude, so every estimate is within about 1% of a true value at that rank. There
+ * are {@value #BINS_PER_OCTAVE} buckets per power of two, which lets the bucket be read off the exponent bits
+ * plus a table over the top mantissa bits instead of calling {@code Math.log} per score. Sketches built over
+ * separate chunks merge by adding bucket counts, which gives exactly the sketch of the whole batch. Each sign
+ * keeps at most {@value #MAX_BINS} buckets; beyond that the buckets closest to zero are folded together.
+ */
+public final class QuantileSketch {
+   public static final int BINS_PER_OCTAVE = 35;
+   public static final int MAX_BINS = 2048;
+   private static final double GAMMA = Math.pow(2.0, 1.0 / BINS_PER_OCTAVE);
+   private static final int MANTISSA_BITS = 12;
+   private static final int[] MANTISSA_BINS = mantissaBins();
+   private static final double MIN_MAGNITUDE = 1.0E-9;
+   private final Store positive = new Store();
+   private final Store negative = new Store();
+   private long zeros;
+   private long count;
+   private double min = Double.POSITIVE_INFINITY;
+   private double max = Double.NEGATIVE_INFINITY;
+
+   // Only finite values are accepted; callers decide what NaN and infinities mean.
+   public void add(double value) {
+      if (value > MIN_MAGNITUDE) {
+         this.positive.add(index(value), 1L);
+      } else if (value < -MIN_MAGNITUDE) {
+         this.negative.add(index(-value), 1L);
+      } else {
+         ++this.zeros;
+      }
+
+      ++this.count;
+      this.min = Math.min(this.min, value);
+      this.max = Math.max(this.max, value);
+   }
+
+   public void merge(QuantileSketch other) {
+      this.positive.merge(other.positive);
+      this.negative.merge(other.negative);
+      this.zeros += other.zeros;
+      this.count += other.count;
+      this.min = Math.min(this.min, other.min);
+      this.max = Math.max(this.max, other.max);
+   }
+
+   public long count() {
+      return this.count;
+   }
+
+   public double min() {
+      return this.min;
+   }
+
+   public double max() {
+      return this.max;
+   }
+
+   public double quantile(double q) {
+      if (this.count == 0) {
+         return Double.NaN;
+      }
+
+      long rank = (long)(q * (this.count - 1));
+      long seen = 0;
+
+      for(int i = this.negative.hi; i >= this.negative.lo && this.negative.total > 0; --i) {
+         seen += this.negative.get(i);
+         if (seen > rank) {
+            return this.clamp(-value(i));
+         }
+      }
+
+      seen += this.zeros;
+      if (seen > rank) {
+         return this.clamp(0.0);
+      }
+
+      for(int i = this.positive.lo; i <= this.positive.hi && this.positive.total > 0; ++i) {
+         seen += this.positive.get(i);
+         if (seen > rank) {
+            return this.clamp(value(i));
+         }
+      }
+
+      return this.max;
+   }
+
+   private double clamp(double value) {
+      return Math.max(this.min, Math.min(this.max, value));
+   }
+
+   // ceil(log_gamma(magnitude)), with the mantissa's share looked up rather than computed.
+   private static int index(double magnitude) {
+      long bits = Double.doubleToRawLongBits(magnitude);
+      int exponent = (int)(bits >>> 52) - 1023;
+      return exponent * BINS_PER_OCTAVE + MANTISSA_BINS[(int)(bits >>> 52 - MANTISSA_BITS) & (1 << MANTISSA_BITS) - 1];
+   }
+
+   private static int[] mantissaBins() {
+      int[] bins = new int[1 << MANTISSA_BITS];
+
+      for(int i = 0; i < bins.length; ++i) {
+         double mantissa = 1.0 + (i + 0.5) / bins.length;
+         bins[i] = (int)Math.ceil(Math.log(mantissa) / Math.log(2.0) * BINS_PER_OCTAVE);
+      }
+
+      return bins;
+   }
+
+   private static double value(int index) {
+      return 2.0 * Math.pow(GAMMA, index) / (GAMMA + 1.0);
+   }
+
+   private static final class Store {
+      private long[] counts = new long[0];
+      private int offset;
+      private int lo;
+      private int hi;
+      private long total;
+
+      long get(int index) {
+         return this.counts[index - this.offset];
+      }
+
+      void add(int index, long count) {
+         if (this.total == 0) {
+            this.lo = index;
+            this.hi = index;
+         } else if (index > this.hi && index - this.lo >= MAX_BINS) {
+            this.collapse(index - MAX_BINS + 1);
+         } else if (index < this.lo) {
+            index = Math.max(index, this.hi - MAX_BINS + 1);
+         }
+
+         int lo = Math.min(this.lo, index);
+         int hi = Math.max(this.hi, index);
+         if (lo < this.offset || hi >= this.offset + this.counts.length) {
+            this.resize(lo, hi);
+         }
+
+         this.lo = lo;
+         this.hi = hi;
+         this.counts[index - this.offset] += count;
+         this.total += count;
+      }
+
+      void merge(Store other) {
+         if (other.total == 0) {
+            return;
+         }
+
+         for(int i = other.lo; i <= other.hi; ++i) {
+            long count = other.get(i);
+            if (count != 0) {
+               this.add(i, count);
+            }
+         }
+      }
+
+      // Folds every bucket below newLo into newLo, keeping the bucket span within MAX_BINS.
+      private void collapse(int newLo) {
+         long folded = 0;
+
+         for(int i = this.lo; i < newLo && i <= this.hi; ++i) {
+            folded += this.get(i);
+            this.counts[i - this.offset] = 0;
+         }
+
+         int hi = Math.max(this.hi, newLo);
+         if (hi >= this.offset + this.counts.length) {
+            this.resize(newLo, hi);
+         }
+
+         this.lo = newLo;
+         this.hi = hi;
+         this.counts[newLo - this.offset] += folded;
+      }
+
+      private void resize(int lo, int hi) {
+         int span = hi - lo + 1;
+         int length = Math.max(64, Math.min(2 * span, span + MAX_BINS));
+         int offset = lo - (length - span) / 2;
+         long[] counts = new long[length];
+         int from = Math.max(this.offset, offset);
+         int to = Math.min(this.offset + this.counts.length, offset + length);
+         if (from < to) {
+            System.arraycopy(this.counts, from - this.offset, counts, from - offset, to - from);
+         }
+
+         this.counts = counts;
+         this.offset = offset;
+      }
+   }
+}
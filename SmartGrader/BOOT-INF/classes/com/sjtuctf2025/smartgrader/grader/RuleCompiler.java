@@ -0,0 +1,37 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RuleCompiler {
+   private final ScriptEnginePool scriptEngines;
+   private final ClassifierGenerator generator;
+   private final RuleSetCache cache;
+
+   public RuleCompiler(ScriptEnginePool scriptEngines, ClassifierGenerator generator,
+                       @Value("${grader.cache.max-entries:1024}") int maxEntries,
+                       @Value("${grader.cache.max-weight:33554432}") long maxWeight) {
+      this.scriptEngines = scriptEngines;
+      this.generator = generator;
+      this.cache = new RuleSetCache(maxEntries, maxWeight);
+   }
+
+   public RuleSet compile(List<GradeRule> rules) {
+      List<GradeRule> copy = List.copyOf(rules);
+      String fingerprint = RuleSet.fingerprint(copy);
+      return this.cache.get(fingerprint, () -> this.build(fingerprint, copy));
+   }
+
+   public Map<String, Object> cacheStats() {
+      return this.cache.stats();
+   }
+
+   private RuleSet build(String fingerprint, List<GradeRule> rules) {
+      IntervalIndex index = IntervalIndex.build(rules);
+      ScoreClassifier classifier = index == null ? new FirstMatchClassifier(rules, this.scriptEngines) : this.generator.generate(index);
+      return new RuleSet(fingerprint, rules, classifier);
+   }
+}
@@ -0,0 +1,146 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A list of positional rule changes, applied in order: a rule at an existing index replaces it, a rule at
+ * {@code index == size} is appended, and an entry without a rule removes the rule at that index.
+ */
+@JsonDeserialize(using = RuleEdits.Deserializer.class)
+public final class RuleEdits {
+   private final List<Edit> changes;
+   private final Integer version;
+
+   public RuleEdits(List<Edit> changes, Integer version) {
+      this.changes = changes;
+      this.version = version;
+   }
+
+   public List<Edit> changes() {
+      return this.changes;
+   }
+
+   public Integer version() {
+      return this.version;
+   }
+
+   public static final class Edit {
+      private final int index;
+      private final GradeRule rule;
+
+      public Edit(int index, GradeRule rule) {
+         this.index = index;
+         this.rule = rule;
+      }
+
+      public int index() {
+         return this.index;
+      }
+
+      public GradeRule rule() {
+         return this.rule;
+      }
+
+      // Returns the rule this edit replaced or removed, or null for an append.
+      public GradeRule applyTo(List<GradeRule> rules) {
+         if (this.index < 0 || this.index > rules.size() || this.index == rules.size() && this.rule == null) {
+            throw new IllegalArgumentException("No rule at index " + this.index);
+         } else if (this.rule == null) {
+            return rules.remove(this.index);
+         } else if (this.index == rules.size()) {
+            rules.add(this.rule);
+            return null;
+         } else {
+            return rules.set(this.index, this.rule);
+         }
+      }
+   }
+
+   // Positional edits that turn one rule list into another, touching only the positions that differ.
+   public static RuleEdits diff(List<GradeRule> from, List<GradeRule> to) {
+      List<Edit> changes = new ArrayList<>();
+      int common = Math.min(from.size(), to.size());
+
+      for(int i = 0; i < common; ++i) {
+         if (!from.get(i).equals(to.get(i))) {
+            changes.add(new Edit(i, to.get(i)));
+         }
+      }
+
+      for(int i = common; i < to.size(); ++i) {
+         changes.add(new Edit(i, to.get(i)));
+      }
+
+      for(int i = from.size() - 1; i >= common; --i) {
+         changes.add(new Edit(i, null));
+      }
+
+      return new RuleEdits(changes, null);
+   }
+
+   public static final class Deserializer extends StdDeserializer<RuleEdits> {
+      public Deserializer() {
+         super(RuleEdits.class);
+      }
+
+      public RuleEdits deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+         GradeRequest.expect(p, JsonToken.START_OBJECT);
+         List<Edit> changes = new ArrayList<>();
+         Integer version = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("changes".equals(field)) {
+               GradeRequest.expect(p, JsonToken.START_ARRAY);
+
+               while(p.nextToken() != JsonToken.END_ARRAY) {
+                  changes.add(readEdit(p));
+               }
+            } else if ("version".equals(field) && p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+               version = p.getIntValue();
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         return new RuleEdits(changes, version);
+      }
+
+      private static Edit readEdit(JsonParser p) throws IOException {
+         GradeRequest.expect(p, JsonToken.START_OBJECT);
+         Integer index = null;
+         GradeRule rule = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("index".equals(field)) {
+               GradeRequest.expect(p, JsonToken.VALUE_NUMBER_INT);
+               index = p.getIntValue();
+            } else if ("rule".equals(field) && p.currentToken() != JsonToken.VALUE_NULL) {
+               rule = GradeRequest.readRule(p);
+               if (rule == null) {
+                  throw JsonMappingException.from(p, "Malformed rule in change");
+               }
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         if (index == null) {
+            throw JsonMappingException.from(p, "Change without an index");
+         }
+
+         return new Edit(index, rule);
+      }
+   }
+}
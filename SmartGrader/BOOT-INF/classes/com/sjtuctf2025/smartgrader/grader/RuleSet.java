@@ -0,0 +1,164 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public final class RuleSet {
+   public static final String NO_GRADE = "N/A";
+   public static final int MAX_RULES = 1000;
+   public static final int MAX_SCRIPT_RULES = 10;
+   private final String fingerprint;
+   private final List<GradeRule> rules;
+   private final String[] grades;
+   private final ScoreClassifier classifier;
+   private volatile LookupTable lookupTable;
+   private volatile byte[][] encodedLabels;
+   private volatile Consumer<RuleSet> resizeListener;
+
+   RuleSet(String fingerprint, List<GradeRule> rules, ScoreClassifier classifier) {
+      this.fingerprint = fingerprint;
+      this.rules = rules;
+      this.grades = new String[rules.size()];
+      this.classifier = classifier;
+
+      for(int i = 0; i < this.grades.length; ++i) {
+         this.grades[i] = rules.get(i).grade();
+      }
+   }
+
+   public static boolean isWithinLimits(List<GradeRule> rules) {
+      if (rules.size() > MAX_RULES) {
+         return false;
+      }
+
+      if (rules.size() > MAX_SCRIPT_RULES) {
+         for(GradeRule rule : rules) {
+            if (!rule.isNative()) {
+               return false;
+            }
+         }
+      }
+
+      return true;
+   }
+
+   // Bounds are written as raw bits and strings are length-prefixed, so two rule lists share a fingerprint only if they are identical.
+   public static String fingerprint(List<GradeRule> rules) {
+      StringBuilder sb = new StringBuilder(rules.size() * 48);
+
+      for(GradeRule rule : rules) {
+         sb.append(Long.toHexString(Double.doubleToRawLongBits(rule.leftScore()))).append(',');
+         sb.append(rule.leftSymbol().length()).append(':').append(rule.leftSymbol());
+         sb.append(Long.toHexString(Double.doubleToRawLongBits(rule.rightScore()))).append(',');
+         sb.append(rule.rightSymbol().length()).append(':').append(rule.rightSymbol());
+         sb.append(rule.grade().length()).append(':').append(rule.grade()).append(';');
+      }
+
+      return sb.toString();
+   }
+
+   // Sums per-rule counts (slot 0 for no match) by grade label, in rule order with N/A last.
+   public static Map<String, Long> countsByGrade(List<GradeRule> rules, long[] counts) {
+      Map<String, Long> grades = new LinkedHashMap<>();
+
+      for(int i = 0; i < rules.size(); ++i) {
+         grades.merge(rules.get(i).grade(), counts[i + 1], Long::sum);
+      }
+
+      if (counts[0] > 0) {
+         grades.merge(NO_GRADE, counts[0], Long::sum);
+      }
+
+      return grades;
+   }
+
+   public String fingerprint() {
+      return this.fingerprint;
+   }
+
+   // Includes the lookup table and encoded labels attached so far; both fire the resize listener when they change.
+   public long estimatedSize() {
+      long size = 2L * this.fingerprint.length() + 160L * this.rules.size();
+      LookupTable table = this.lookupTable;
+      if (table != null) {
+         size += table.estimatedSize();
+      }
+
+      byte[][] encoded = this.encodedLabels;
+      if (encoded != null) {
+         for(byte[] label : encoded) {
+            size += 16L + label.length;
+         }
+      }
+
+      return size;
+   }
+
+   public LookupTable lookupTable() {
+      return this.lookupTable;
+   }
+
+   void lookupTable(LookupTable lookupTable) {
+      if (this.lookupTable != lookupTable) {
+         this.lookupTable = lookupTable;
+         this.resized();
+      }
+   }
+
+   void onResize(Consumer<RuleSet> listener) {
+      this.resizeListener = listener;
+   }
+
+   // Each label as a quoted UTF-8 JSON string at index + 1, N/A at 0; built once and kept with the cached rule set.
+   public byte[][] encodedLabels() {
+      byte[][] encoded = this.encodedLabels;
+      if (encoded == null) {
+         encoded = new byte[this.grades.length + 1][];
+         encoded[0] = quote(NO_GRADE);
+
+         for(int i = 0; i < this.grades.length; ++i) {
+            encoded[i + 1] = quote(this.grades[i]);
+         }
+
+         this.encodedLabels = encoded;
+         this.resized();
+      }
+
+      return encoded;
+   }
+
+   public List<GradeRule> rules() {
+      return this.rules;
+   }
+
+   public ScoreClassifier classifier() {
+      return this.classifier;
+   }
+
+   public String grade(double score) {
+      return this.label(this.classifier.classify(score));
+   }
+
+   public String label(int index) {
+      return index == ScoreClassifier.NO_MATCH ? NO_GRADE : this.grades[index];
+   }
+
+   private void resized() {
+      Consumer<RuleSet> listener = this.resizeListener;
+      if (listener != null) {
+         listener.accept(this);
+      }
+   }
+
+   private static byte[] quote(String label) {
+      byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(label);
+      byte[] quoted = new byte[escaped.length + 2];
+      quoted[0] = '"';
+      System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+      quoted[quoted.length - 1] = '"';
+      return quoted;
+   }
+}
@@ -0,0 +1,168 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * LRU of compiled rule sets by fingerprint, bounded by entry count and by estimated size.
+ *
+ * <p>The first request for a fingerprint compiles outside the lock; concurrent requests for the same
+ * fingerprint wait on its future instead of compiling again. An entry is re-weighed whenever its rule set
+ * grows a lookup table or encoded labels after it was cached.
+ */
+final class RuleSetCache {
+   private final int maxEntries;
+   private final long maxWeight;
+   private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+   private final ReentrantLock lock = new ReentrantLock();
+   private long weight;
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong shared = new AtomicLong();
+   private final AtomicLong evictions = new AtomicLong();
+
+   RuleSetCache(int maxEntries, long maxWeight) {
+      this.maxEntries = maxEntries;
+      this.maxWeight = maxWeight;
+   }
+
+   RuleSet get(String fingerprint, Supplier<RuleSet> compiler) {
+      if (this.maxEntries <= 0) {
+         this.misses.incrementAndGet();
+         return compiler.get();
+      }
+
+      Entry entry;
+      boolean owner = false;
+      this.lock.lock();
+
+      try {
+         entry = this.entries.get(fingerprint);
+         if (entry == null) {
+            entry = new Entry();
+            this.entries.put(fingerprint, entry);
+            owner = true;
+            this.misses.incrementAndGet();
+         } else if (entry.future.isDone()) {
+            this.hits.incrementAndGet();
+         } else {
+            this.shared.incrementAndGet();
+         }
+      } finally {
+         this.lock.unlock();
+      }
+
+      if (owner) {
+         this.compile(fingerprint, entry, compiler);
+      }
+
+      try {
+         return entry.future.join();
+      } catch (CompletionException var8) {
+         if (var8.getCause() instanceof Error) {
+            throw (Error)var8.getCause();
+         }
+
+         throw var8.getCause() instanceof RuntimeException ? (RuntimeException)var8.getCause() : var8;
+      }
+   }
+
+   Map<String, Object> stats() {
+      Map<String, Object> stats = new LinkedHashMap<>();
+      long hits = this.hits.get();
+      long requests = hits + this.misses.get() + this.shared.get();
+      stats.put("hits", hits);
+      stats.put("misses", this.misses.get());
+      stats.put("sharedCompilations", this.shared.get());
+      stats.put("evictions", this.evictions.get());
+      stats.put("hitRate", requests == 0L ? null : (double)hits / requests);
+      this.lock.lock();
+
+      try {
+         stats.put("entries", this.entries.size());
+         stats.put("weight", this.weight);
+      } finally {
+         this.lock.unlock();
+      }
+
+      stats.put("maxEntries", this.maxEntries);
+      stats.put("maxWeight", this.maxWeight);
+      return stats;
+   }
+
+   private void compile(String fingerprint, Entry entry, Supplier<RuleSet> compiler) {
+      RuleSet ruleSet;
+      try {
+         ruleSet = compiler.get();
+      } catch (Throwable var10) {
+         this.lock.lock();
+
+         try {
+            this.entries.remove(fingerprint, entry);
+         } finally {
+            this.lock.unlock();
+         }
+
+         entry.future.completeExceptionally(var10);
+         return;
+      }
+
+      ruleSet.onResize(resized -> this.reweigh(fingerprint, resized));
+      this.lock.lock();
+
+      try {
+         entry.ruleSet = ruleSet;
+         entry.weight = ruleSet.estimatedSize();
+         if (this.entries.get(fingerprint) == entry) {
+            this.weight += entry.weight;
+            this.evict(entry);
+         }
+      } finally {
+         this.lock.unlock();
+      }
+
+      entry.future.complete(ruleSet);
+   }
+
+   private void reweigh(String fingerprint, RuleSet ruleSet) {
+      this.lock.lock();
+
+      try {
+         Entry entry = this.entries.get(fingerprint);
+         if (entry != null && entry.ruleSet == ruleSet) {
+            long size = ruleSet.estimatedSize();
+            this.weight += size - entry.weight;
+            entry.weight = size;
+            this.evict(entry);
+         }
+      } finally {
+         this.lock.unlock();
+      }
+   }
+
+   // Drops least recently used finished entries, never the one just added, until both bounds hold again.
+   private void evict(Entry keep) {
+      Iterator<Entry> it = this.entries.values().iterator();
+
+      while((this.entries.size() > this.maxEntries || this.weight > this.maxWeight) && it.hasNext()) {
+         Entry eldest = it.next();
+         if (eldest != keep && eldest.future.isDone()) {
+            it.remove();
+            this.weight -= eldest.weight;
+            this.evictions.incrementAndGet();
+         }
+      }
+   }
+
+   private static final class Entry {
+      final CompletableFuture<RuleSet> future = new CompletableFuture<>();
+      RuleSet ruleSet;
+      long weight;
+   }
+}
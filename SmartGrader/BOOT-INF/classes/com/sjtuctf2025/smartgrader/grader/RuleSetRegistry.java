@@ -0,0 +1,74 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rule sets registered once and then graded against by id. Each registration keeps its compiled form, so
+ * grading by id skips rule parsing and compilation entirely.
+ */
+@Component
+public class RuleSetRegistry {
+   private final RuleCompiler ruleCompiler;
+   private final int maxEntries;
+   private final ConcurrentHashMap<String, Registration> registrations = new ConcurrentHashMap<>();
+
+   public RuleSetRegistry(RuleCompiler ruleCompiler, @Value("${grader.registry.max-entries:1000}") int maxEntries) {
+      this.ruleCompiler = ruleCompiler;
+      this.maxEntries = maxEntries;
+   }
+
+   public Registration register(List<GradeRule> rules) {
+      if (this.registrations.size() >= this.maxEntries) {
+         return null;
+      }
+
+      Registration registration = new Registration(UUID.randomUUID().toString(), 1, this.ruleCompiler.compile(rules));
+      this.registrations.put(registration.id(), registration);
+      return registration;
+   }
+
+   public Registration update(String id, List<GradeRule> rules) {
+      RuleSet ruleSet = this.ruleCompiler.compile(rules);
+      return this.registrations.computeIfPresent(id, (key, current) -> new Registration(key, current.version() + 1, ruleSet));
+   }
+
+   public Registration get(String id) {
+      return this.registrations.get(id);
+   }
+
+   public boolean remove(String id) {
+      return this.registrations.remove(id) != null;
+   }
+
+   public int size() {
+      return this.registrations.size();
+   }
+
+   public static final class Registration {
+      private final String id;
+      private final int version;
+      private final RuleSet ruleSet;
+
+      Registration(String id, int version, RuleSet ruleSet) {
+         this.id = id;
+         this.version = version;
+         this.ruleSet = ruleSet;
+      }
+
+      public String id() {
+         return this.id;
+      }
+
+      public int version() {
+         return this.version;
+      }
+
+      public RuleSet ruleSet() {
+         return this.ruleSet;
+      }
+   }
+}
@@ -0,0 +1,49 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The body of {@code /api/rulesets}, {@code {"rules": [...]}}. Unlike an inline grading request, a malformed rule
+ * rejects the whole body, so a stored rule set is never a silently shortened copy of what was sent.
+ */
+@JsonDeserialize(using = RuleSetRequest.Deserializer.class)
+public final class RuleSetRequest {
+   private final List<GradeRule> rules;
+
+   public RuleSetRequest(List<GradeRule> rules) {
+      this.rules = rules;
+   }
+
+   public List<GradeRule> rules() {
+      return this.rules;
+   }
+
+   public static final class Deserializer extends StdDeserializer<RuleSetRequest> {
+      public Deserializer() {
+         super(RuleSetRequest.class);
+      }
+
+      public RuleSetRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+         GradeRequest.expect(p, JsonToken.START_OBJECT);
+         List<GradeRule> rules = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("rules".equals(field)) {
+               rules = GradeRequest.readRules(p, true);
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         return new RuleSetRequest(rules);
+      }
+   }
+}
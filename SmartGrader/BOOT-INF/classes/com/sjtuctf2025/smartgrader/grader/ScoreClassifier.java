@@ -0,0 +1,8 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+@FunctionalInterface
+public interface ScoreClassifier {
+   int NO_MATCH = -1;
+
+   int classify(double score);
+}
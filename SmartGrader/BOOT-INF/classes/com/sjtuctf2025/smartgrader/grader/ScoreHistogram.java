@@ -0,0 +1,91 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One score column sorted once so that candidate rule sets can be counted without grading anyone. A native
+ * rule set becomes an {@link IntervalIndex}, and each of its atoms (a gap or a single boundary point) holds
+ * exactly the scores between two binary searches, so a candidate costs O(R log S) however many students
+ * there are. Rule sets with script rules have no atoms and are graded once per distinct score instead.
+ */
+public final class ScoreHistogram {
+   private final double[] sorted;
+   private final int nans;
+
+   public ScoreHistogram(double[] scores) {
+      double[] sorted = new double[scores.length];
+      int count = 0;
+
+      for(double score : scores) {
+         if (score == score) {
+            sorted[count++] = score;
+         }
+      }
+
+      Arrays.sort(sorted, 0, count);
+      this.sorted = count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+      this.nans = scores.length - count;
+   }
+
+   public int size() {
+      return this.sorted.length + this.nans;
+   }
+
+   // Students per rule, with slot 0 for those no rule matches.
+   public long[] counts(List<GradeRule> rules, RuleCompiler compiler) {
+      long[] counts = new long[rules.size() + 1];
+      IntervalIndex index = IntervalIndex.build(rules);
+      if (index == null) {
+         this.classifyRuns(compiler.compile(rules).classifier(), counts);
+         return counts;
+      }
+
+      double[] bounds = index.bounds();
+      int[] winners = index.winners();
+      int below = 0;
+
+      for(int k = 0; k < bounds.length; ++k) {
+         int atLeast = this.search(bounds[k], below, false);
+         int above = this.search(bounds[k], atLeast, true);
+         counts[winners[2 * k] + 1] += atLeast - below;
+         counts[winners[2 * k + 1] + 1] += above - atLeast;
+         below = above;
+      }
+
+      counts[index.nanWinner() + 1] += this.nans;
+      return counts;
+   }
+
+   private void classifyRuns(ScoreClassifier classifier, long[] counts) {
+      int i = 0;
+
+      while(i < this.sorted.length) {
+         double score = this.sorted[i];
+         int end = this.search(score, i, true);
+         counts[classifier.classify(score) + 1] += end - i;
+         i = end;
+      }
+
+      if (this.nans > 0) {
+         counts[classifier.classify(Double.NaN) + 1] += this.nans;
+      }
+   }
+
+   // First position at or after from whose score is >= value, or > value when inclusive.
+   private int search(double value, int from, boolean inclusive) {
+      int lo = from;
+      int hi = this.sorted.length;
+
+      while(lo < hi) {
+         int mid = lo + hi >>> 1;
+         if (this.sorted[mid] < value || inclusive && this.sorted[mid] == value) {
+            lo = mid + 1;
+         } else {
+            hi = mid;
+         }
+      }
+
+      return lo;
+   }
+}
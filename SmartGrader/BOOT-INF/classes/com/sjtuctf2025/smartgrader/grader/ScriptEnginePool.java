@@ -0,0 +1,129 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ScriptEnginePool {
+   private static final int MAX_COMPILED_PER_ENGINE = 256;
+   private final ScriptEngineManager manager = new ScriptEngineManager();
+   private final BlockingQueue<PooledEngine> idle;
+   private final int size;
+   private final AtomicInteger created = new AtomicInteger();
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private final AtomicLong waits = new AtomicLong();
+   private final AtomicLong compilations = new AtomicLong();
+
+   public ScriptEnginePool(@Value("${grader.script.pool-size:${server.tomcat.threads.max:200}}") int size) {
+      this.size = Math.max(1, size);
+      this.idle = new ArrayBlockingQueue<>(this.size);
+   }
+
+   public boolean test(String expression, double x) {
+      PooledEngine pooled;
+      try {
+         pooled = this.borrow();
+      } catch (InterruptedException var10) {
+         Thread.currentThread().interrupt();
+         return false;
+      } catch (RuntimeException var11) {
+         System.out.println(var11.getMessage());
+         return false;
+      }
+
+      try {
+         return pooled.test(expression, x);
+      } catch (Exception var9) {
+         System.out.println(var9.getMessage());
+         return false;
+      } finally {
+         this.idle.offer(pooled);
+      }
+   }
+
+   public Map<String, Object> stats() {
+      Map<String, Object> stats = new LinkedHashMap<>();
+      stats.put("size", this.size);
+      stats.put("created", this.created.get());
+      stats.put("idle", this.idle.size());
+      stats.put("hits", this.hits.get());
+      stats.put("misses", this.misses.get());
+      stats.put("waits", this.waits.get());
+      stats.put("compilations", this.compilations.get());
+      return stats;
+   }
+
+   private PooledEngine borrow() throws InterruptedException {
+      PooledEngine pooled = this.idle.poll();
+      if (pooled != null) {
+         this.hits.incrementAndGet();
+         return pooled;
+      }
+
+      int count;
+      while((count = this.created.get()) < this.size) {
+         if (this.created.compareAndSet(count, count + 1)) {
+            this.misses.incrementAndGet();
+
+            try {
+               return new PooledEngine(this.manager.getEngineByName("js"));
+            } catch (RuntimeException var4) {
+               this.created.decrementAndGet();
+               throw var4;
+            }
+         }
+      }
+
+      this.waits.incrementAndGet();
+      return this.idle.take();
+   }
+
+   private final class PooledEngine {
+      private final ScriptEngine engine;
+      private final Map<String, CompiledScript> compiled = new HashMap<>();
+
+      PooledEngine(ScriptEngine engine) {
+         if (engine == null) {
+            throw new IllegalStateException("No js script engine available");
+         }
+
+         this.engine = engine;
+      }
+
+      boolean test(String expression, double x) throws ScriptException {
+         // Every evaluation gets a fresh global, so nothing an expression assigns or redefines is visible to the next one on this engine.
+         Bindings bindings = this.engine.createBindings();
+         bindings.put("x", x);
+         if (!(this.engine instanceof Compilable)) {
+            return String.valueOf(this.engine.eval(expression, bindings)).equals("true");
+         }
+
+         CompiledScript script = this.compiled.get(expression);
+         if (script == null) {
+            script = ((Compilable)this.engine).compile(expression);
+            ScriptEnginePool.this.compilations.incrementAndGet();
+            if (this.compiled.size() >= MAX_COMPILED_PER_ENGINE) {
+               this.compiled.clear();
+            }
+
+            this.compiled.put(expression, script);
+         }
+
+         return String.valueOf(script.eval(bindings)).equals("true");
+      }
+   }
+}
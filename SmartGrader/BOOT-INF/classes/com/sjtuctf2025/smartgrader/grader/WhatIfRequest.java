@@ -0,0 +1,70 @@
+package com.sjtuctf2025.smartgrader.grader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The body of {@code /api/grader/whatif}: one score column and up to {@value #MAX_CANDIDATES} candidate rule
+ * lists, {@code {"scores": [...], "ruleSets": [[...], [...]]}}.
+ */
+@JsonDeserialize(using = WhatIfRequest.Deserializer.class)
+public final class WhatIfRequest {
+   public static final int MAX_CANDIDATES = 1000;
+   private final double[] scores;
+   private final List<List<GradeRule>> ruleSets;
+
+   public WhatIfRequest(double[] scores, List<List<GradeRule>> ruleSets) {
+      this.scores = scores;
+      this.ruleSets = ruleSets;
+   }
+
+   public double[] scores() {
+      return this.scores;
+   }
+
+   public List<List<GradeRule>> ruleSets() {
+      return this.ruleSets;
+   }
+
+   public static final class Deserializer extends StdDeserializer<WhatIfRequest> {
+      public Deserializer() {
+         super(WhatIfRequest.class);
+      }
+
+      public WhatIfRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+         GradeRequest.expect(p, JsonToken.START_OBJECT);
+         double[] scores = null;
+         List<List<GradeRule>> ruleSets = null;
+
+         while(p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("scores".equals(field)) {
+               scores = GradeRequest.readScores(p);
+            } else if ("ruleSets".equals(field)) {
+               GradeRequest.expect(p, JsonToken.START_ARRAY);
+               ruleSets = new ArrayList<>();
+
+               while(p.nextToken() != JsonToken.END_ARRAY) {
+                  if (ruleSets.size() == MAX_CANDIDATES) {
+                     throw JsonMappingException.from(p, "At most " + MAX_CANDIDATES + " rule sets per call");
+                  }
+
+                  ruleSets.add(GradeRequest.readRules(p));
+               }
+            } else {
+               p.skipChildren();
+            }
+         }
+
+         return new WhatIfRequest(scores, ruleSets);
+      }
+   }
+}
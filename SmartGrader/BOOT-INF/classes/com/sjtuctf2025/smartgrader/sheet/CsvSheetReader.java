@@ -0,0 +1,136 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 rows read one at a time: quoted fields may hold commas, doubled quotes and line breaks, and a
+ * leading byte order mark is dropped. Fields and rows are held to the same limits as {@link XlsxSheetReader},
+ * so an unterminated quote fails the sheet instead of pulling the rest of the upload into one field.
+ */
+public final class CsvSheetReader implements SheetReader {
+   private final BufferedReader reader;
+   private final StringBuilder field = new StringBuilder();
+   private final List<String> cells = new ArrayList<>();
+   private boolean[] kept;
+   private int record;
+   private int column;
+   private int fieldLength;
+   private boolean started;
+   private boolean finished;
+
+   public CsvSheetReader(Reader reader) {
+      this.reader = new BufferedReader(reader, 65536);
+   }
+
+   public String[] next() throws IOException {
+      while(!this.finished) {
+         String[] row = this.readRow();
+         for(String cell : row) {
+            if (cell != null) {
+               return row;
+            }
+         }
+      }
+
+      return null;
+   }
+
+   public void keepColumns(int... columns) {
+      this.kept = SheetReader.columnMask(columns);
+   }
+
+   private String[] readRow() throws IOException {
+      this.cells.clear();
+      this.field.setLength(0);
+      this.column = 0;
+      this.fieldLength = 0;
+      ++this.record;
+      boolean quoted = false;
+      boolean wasQuoted = false;
+
+      while(true) {
+         int c = this.reader.read();
+         if (!this.started) {
+            this.started = true;
+            if (c == 0xFEFF) {
+               continue;
+            }
+         }
+
+         if (c < 0) {
+            this.finished = true;
+            this.endField(wasQuoted);
+            return this.cells.toArray(new String[0]);
+         }
+
+         if (quoted) {
+            if (c != '"') {
+               this.append((char)c);
+            } else {
+               this.reader.mark(1);
+               if (this.reader.read() == '"') {
+                  this.append('"');
+               } else {
+                  this.reader.reset();
+                  quoted = false;
+               }
+            }
+         } else if (c == '"' && this.fieldLength == 0) {
+            quoted = true;
+            wasQuoted = true;
+         } else if (c == ',') {
+            this.endField(wasQuoted);
+            wasQuoted = false;
+         } else if (c == '\n' || c == '\r') {
+            if (c == '\r') {
+               this.reader.mark(1);
+               if (this.reader.read() != '\n') {
+                  this.reader.reset();
+               }
+            }
+
+            this.endField(wasQuoted);
+            return this.cells.toArray(new String[0]);
+         } else {
+            this.append((char)c);
+         }
+      }
+   }
+
+   // Every character counts toward the field limit, but only kept columns are buffered.
+   private void append(char c) throws IOException {
+      if (++this.fieldLength > XlsxSheetReader.MAX_CELL_CHARS) {
+         throw new IOException("Malformed sheet: field " + (this.column + 1) + " of record " + this.record + " is longer than " + XlsxSheetReader.MAX_CELL_CHARS + " characters");
+      }
+
+      if (this.isKept(this.column)) {
+         this.field.append(c);
+      }
+   }
+
+   private void endField(boolean quoted) throws IOException {
+      if (this.column >= XlsxSheetReader.MAX_COLUMNS) {
+         throw new IOException("Malformed sheet: record " + this.record + " has more than " + XlsxSheetReader.MAX_COLUMNS + " columns");
+      }
+
+      if (this.kept == null || this.column < this.kept.length) {
+         this.cells.add(!this.isKept(this.column) || this.fieldLength == 0 && !quoted ? null : this.field.toString());
+      }
+
+      ++this.column;
+      this.field.setLength(0);
+      this.fieldLength = 0;
+   }
+
+   private boolean isKept(int column) {
+      return this.kept == null || column < this.kept.length && this.kept[column];
+   }
+
+   public void close() throws IOException {
+      this.reader.close();
+   }
+}
@@ -0,0 +1,66 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UTF-8 CSV with a byte order mark, which is what Excel needs to show Chinese headers correctly. Fields are
+ * quoted only when they contain a comma, quote or line break.
+ */
+public final class CsvSheetWriter implements SheetWriter {
+   private final Writer out;
+
+   public CsvSheetWriter(OutputStream out) throws IOException {
+      this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536);
+      this.out.write(0xFEFF);
+   }
+
+   public void writeRow(Object... cells) throws IOException {
+      for(int i = 0; i < cells.length; ++i) {
+         if (i > 0) {
+            this.out.write(',');
+         }
+
+         if (cells[i] != null) {
+            this.writeField(cells[i].toString());
+         }
+      }
+
+      this.out.write("\r\n");
+   }
+
+   private void writeField(String field) throws IOException {
+      boolean quote = false;
+
+      for(int i = 0; i < field.length() && !quote; ++i) {
+         char c = field.charAt(i);
+         quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+      }
+
+      if (!quote) {
+         this.out.write(field);
+         return;
+      }
+
+      this.out.write('"');
+
+      for(int i = 0; i < field.length(); ++i) {
+         char c = field.charAt(i);
+         if (c == '"') {
+            this.out.write('"');
+         }
+
+         this.out.write(c);
+      }
+
+      this.out.write('"');
+   }
+
+   public void close() throws IOException {
+      this.out.close();
+   }
+}
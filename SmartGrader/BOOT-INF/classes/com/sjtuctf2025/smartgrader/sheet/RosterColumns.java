@@ -0,0 +1,72 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+/**
+ * Positions of the 学号/StudentID, 姓名/Name and 成绩/Score columns in a header row, the same headers the
+ * upload page accepts.
+ */
+public final class RosterColumns {
+   private final int studentId;
+   private final int name;
+   private final int score;
+
+   private RosterColumns(int studentId, int name, int score) {
+      this.studentId = studentId;
+      this.name = name;
+      this.score = score;
+   }
+
+   // Returns null when any of the three columns is missing; missing() names the first one.
+   public static RosterColumns find(String[] header) {
+      int studentId = indexOf(header, "学号", "StudentID");
+      int name = indexOf(header, "姓名", "Name");
+      int score = indexOf(header, "成绩", "Score");
+      return studentId < 0 || name < 0 || score < 0 ? null : new RosterColumns(studentId, name, score);
+   }
+
+   public static String missing(String[] header) {
+      if (indexOf(header, "学号", "StudentID") < 0) {
+         return "学号";
+      } else if (indexOf(header, "姓名", "Name") < 0) {
+         return "姓名";
+      } else {
+         return indexOf(header, "成绩", "Score") < 0 ? "成绩" : null;
+      }
+   }
+
+   public int[] columns() {
+      return new int[]{this.studentId, this.name, this.score};
+   }
+
+   public String studentId(String[] row) {
+      return cell(row, this.studentId);
+   }
+
+   public String name(String[] row) {
+      return cell(row, this.name);
+   }
+
+   public String score(String[] row) {
+      return cell(row, this.score);
+   }
+
+   private static String cell(String[] row, int column) {
+      return column < row.length ? row[column] : null;
+   }
+
+   private static int indexOf(String[] header, String chinese, String english) {
+      int fallback = -1;
+
+      for(int i = 0; i < header.length; ++i) {
+         String cell = header[i] == null ? null : header[i].trim();
+         if (chinese.equals(cell)) {
+            return i;
+         }
+
+         if (english.equals(cell) && fallback < 0) {
+            fallback = i;
+         }
+      }
+
+      return fallback;
+   }
+}
@@ -0,0 +1,30 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface SheetReader extends Closeable {
+   // Cells of the next non-empty row, blanks as null, or null once the sheet is exhausted.
+   String[] next() throws IOException;
+
+   // From the next row on, only these columns are read; the rest come back as null and trailing ones are dropped.
+   void keepColumns(int... columns);
+
+   static boolean[] columnMask(int... columns) {
+      int width = 0;
+
+      for(int column : columns) {
+         width = Math.max(width, column + 1);
+      }
+
+      boolean[] mask = new boolean[width];
+
+      for(int column : columns) {
+         if (column >= 0) {
+            mask[column] = true;
+         }
+      }
+
+      return mask;
+   }
+}
@@ -0,0 +1,9 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface SheetWriter extends Closeable {
+   // Cells are written as numbers when they are Numbers and as text otherwise; null leaves the cell blank.
+   void writeRow(Object... cells) throws IOException;
+}
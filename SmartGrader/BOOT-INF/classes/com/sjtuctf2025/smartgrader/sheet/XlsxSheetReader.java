@@ -0,0 +1,315 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Rows of the first worksheet of an .xlsx file, pulled from the sheet XML with StAX so only the current row
+ * and the shared-string table are ever held in memory.
+ *
+ * <p>Excel's own limits bound both: cell references past column XFD ({@value #MAX_COLUMNS} columns) and
+ * text longer than {@value #MAX_CELL_CHARS} characters make the file unreadable, and the shared-string table
+ * is loaded whole but refused once it passes {@value #MAX_SHARED_CHARS} characters.
+ */
+public final class XlsxSheetReader implements SheetReader {
+   private static final String RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+   public static final int MAX_COLUMNS = 16384;
+   public static final int MAX_CELL_CHARS = 32767;
+   public static final long MAX_SHARED_CHARS = 1L << 24;
+   private static final XMLInputFactory XML = createFactory();
+   private final ZipFile zip;
+   private final List<String> sharedStrings;
+   private final InputStream sheetStream;
+   private final XMLStreamReader sheet;
+   private boolean[] kept;
+
+   public XlsxSheetReader(File file) throws IOException {
+      this.zip = new ZipFile(file);
+
+      try {
+         this.sharedStrings = this.readSharedStrings();
+         ZipEntry entry = this.zip.getEntry(this.firstSheet());
+         if (entry == null) {
+            throw new IOException("Workbook has no worksheet");
+         }
+
+         this.sheetStream = this.zip.getInputStream(entry);
+         this.sheet = XML.createXMLStreamReader(this.sheetStream);
+      } catch (IOException | XMLStreamException | RuntimeException var3) {
+         this.zip.close();
+         throw var3 instanceof IOException ? (IOException)var3 : new IOException("Not a readable workbook: " + var3.getMessage(), var3);
+      }
+   }
+
+   public void keepColumns(int... columns) {
+      this.kept = SheetReader.columnMask(columns);
+   }
+
+   public String[] next() throws IOException {
+      try {
+         while(this.sheet.hasNext()) {
+            if (this.sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(this.sheet.getLocalName())) {
+               String[] row = this.readRow();
+               if (row.length > 0) {
+                  return row;
+               }
+            }
+         }
+
+         return null;
+      } catch (XMLStreamException | IllegalArgumentException var2) {
+         throw new IOException("Malformed worksheet: " + var2.getMessage(), var2);
+      }
+   }
+
+   private String[] readRow() throws XMLStreamException {
+      String[] row = new String[this.kept == null ? 8 : this.kept.length];
+      int width = 0;
+      int column = -1;
+
+      while(this.sheet.hasNext()) {
+         int event = this.sheet.next();
+         if (event == XMLStreamConstants.END_ELEMENT && "row".equals(this.sheet.getLocalName())) {
+            break;
+         }
+
+         if (event == XMLStreamConstants.START_ELEMENT && "c".equals(this.sheet.getLocalName())) {
+            String ref = this.sheet.getAttributeValue(null, "r");
+            column = ref == null ? column + 1 : column(ref);
+            if (column < 0 || column >= MAX_COLUMNS) {
+               throw new IllegalArgumentException("Cell " + (ref == null ? "#" + (column + 1) : ref) + " is not in columns A to XFD");
+            }
+
+            if (this.kept != null && (column >= this.kept.length || !this.kept[column])) {
+               skipElement(this.sheet);
+               continue;
+            }
+
+            String value = this.readCell(this.sheet.getAttributeValue(null, "t"));
+            if (value != null) {
+               if (column >= row.length) {
+                  row = Arrays.copyOf(row, Math.max(column + 1, row.length * 2));
+               }
+
+               row[column] = value;
+               width = Math.max(width, column + 1);
+            }
+         }
+      }
+
+      return Arrays.copyOf(row, width);
+   }
+
+   private String readCell(String type) throws XMLStreamException {
+      String raw = null;
+      StringBuilder inline = null;
+
+      while(this.sheet.hasNext()) {
+         int event = this.sheet.next();
+         if (event == XMLStreamConstants.END_ELEMENT && "c".equals(this.sheet.getLocalName())) {
+            break;
+         }
+
+         if (event == XMLStreamConstants.START_ELEMENT) {
+            String name = this.sheet.getLocalName();
+            if ("v".equals(name)) {
+               StringBuilder sb = new StringBuilder();
+               appendText(this.sheet, sb);
+               raw = sb.toString();
+            } else if ("is".equals(name)) {
+               inline = new StringBuilder();
+               readText(this.sheet, "is", inline);
+            }
+         }
+      }
+
+      if ("inlineStr".equals(type)) {
+         return inline == null ? null : inline.toString();
+      } else if (raw == null) {
+         return null;
+      } else if ("s".equals(type)) {
+         int index;
+         try {
+            index = Integer.parseInt(raw.trim());
+         } catch (NumberFormatException var6) {
+            return null;
+         }
+
+         return index >= 0 && index < this.sharedStrings.size() ? this.sharedStrings.get(index) : null;
+      } else if ("b".equals(type)) {
+         return "1".equals(raw) ? "TRUE" : "FALSE";
+      } else {
+         return "e".equals(type) ? null : raw;
+      }
+   }
+
+   private List<String> readSharedStrings() throws IOException, XMLStreamException {
+      List<String> strings = new ArrayList<>();
+      long chars = 0L;
+      ZipEntry entry = this.zip.getEntry("xl/sharedStrings.xml");
+      if (entry == null) {
+         return strings;
+      }
+
+      try (InputStream in = this.zip.getInputStream(entry)) {
+         XMLStreamReader xml = XML.createXMLStreamReader(in);
+
+         try {
+            while(xml.hasNext()) {
+               if (xml.next() == XMLStreamConstants.START_ELEMENT && "si".equals(xml.getLocalName())) {
+                  StringBuilder sb = new StringBuilder();
+                  readText(xml, "si", sb);
+                  chars += sb.length() + 16L;
+                  if (chars > MAX_SHARED_CHARS) {
+                     throw new IOException("Shared string table is larger than " + MAX_SHARED_CHARS + " characters");
+                  }
+
+                  strings.add(sb.toString());
+               }
+            }
+         } finally {
+            xml.close();
+         }
+      }
+
+      return strings;
+   }
+
+   // Concatenates the <t> runs up to the closing element, skipping phonetic guides.
+   private static void readText(XMLStreamReader xml, String end, StringBuilder sb) throws XMLStreamException {
+      int skip = 0;
+
+      while(xml.hasNext()) {
+         int event = xml.next();
+         if (event == XMLStreamConstants.END_ELEMENT) {
+            String name = xml.getLocalName();
+            if ("rPh".equals(name)) {
+               --skip;
+            } else if (end.equals(name)) {
+               return;
+            }
+         } else if (event == XMLStreamConstants.START_ELEMENT) {
+            String name = xml.getLocalName();
+            if ("rPh".equals(name)) {
+               ++skip;
+            } else if ("t".equals(name) && skip == 0) {
+               appendText(xml, sb);
+            }
+         }
+      }
+   }
+
+   // Like getElementText, but gives up as soon as the text passes what one Excel cell can hold.
+   private static void appendText(XMLStreamReader xml, StringBuilder sb) throws XMLStreamException {
+      while(xml.hasNext()) {
+         int event = xml.next();
+         if (event == XMLStreamConstants.END_ELEMENT) {
+            return;
+         }
+
+         if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE) {
+            sb.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+            if (sb.length() > MAX_CELL_CHARS) {
+               throw new XMLStreamException("Text longer than " + MAX_CELL_CHARS + " characters", xml.getLocation());
+            }
+         } else if (event == XMLStreamConstants.START_ELEMENT) {
+            throw new XMLStreamException("Unexpected element " + xml.getLocalName() + " in text", xml.getLocation());
+         }
+      }
+   }
+
+   private static void skipElement(XMLStreamReader xml) throws XMLStreamException {
+      int depth = 1;
+
+      while(depth > 0 && xml.hasNext()) {
+         int event = xml.next();
+         if (event == XMLStreamConstants.START_ELEMENT) {
+            ++depth;
+         } else if (event == XMLStreamConstants.END_ELEMENT) {
+            --depth;
+         }
+      }
+   }
+
+   private String firstSheet() throws IOException, XMLStreamException {
+      String id = null;
+      ZipEntry workbook = this.zip.getEntry("xl/workbook.xml");
+      if (workbook != null) {
+         try (InputStream in = this.zip.getInputStream(workbook)) {
+            XMLStreamReader xml = XML.createXMLStreamReader(in);
+
+            while(id == null && xml.hasNext()) {
+               if (xml.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(xml.getLocalName())) {
+                  id = xml.getAttributeValue(RELATIONSHIPS, "id");
+               }
+            }
+
+            xml.close();
+         }
+      }
+
+      ZipEntry rels = this.zip.getEntry("xl/_rels/workbook.xml.rels");
+      if (id != null && rels != null) {
+         try (InputStream in = this.zip.getInputStream(rels)) {
+            XMLStreamReader xml = XML.createXMLStreamReader(in);
+
+            while(xml.hasNext()) {
+               if (xml.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(xml.getLocalName()) && id.equals(xml.getAttributeValue(null, "Id"))) {
+                  String target = xml.getAttributeValue(null, "Target");
+                  xml.close();
+                  return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+               }
+            }
+
+            xml.close();
+         }
+      }
+
+      return "xl/worksheets/sheet1.xml";
+   }
+
+   // Zero-based column of a reference like "C7"; stops counting once past XFD, so long references cannot overflow.
+   private static int column(String ref) {
+      int column = 0;
+
+      for(int i = 0; i < ref.length() && column <= MAX_COLUMNS; ++i) {
+         char c = ref.charAt(i);
+         if (c < 'A' || c > 'Z') {
+            break;
+         }
+
+         column = column * 26 + (c - 'A' + 1);
+      }
+
+      return column - 1;
+   }
+
+   private static XMLInputFactory createFactory() {
+      XMLInputFactory factory = XMLInputFactory.newFactory();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+      return factory;
+   }
+
+   public void close() throws IOException {
+      try {
+         this.sheet.close();
+      } catch (XMLStreamException var2) {
+         System.out.println(var2.getMessage());
+      }
+
+      this.sheetStream.close();
+      this.zip.close();
+   }
+}
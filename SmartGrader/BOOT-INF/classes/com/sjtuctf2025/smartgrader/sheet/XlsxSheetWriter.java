@@ -0,0 +1,135 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A single-sheet .xlsx written front to back. The package parts are emitted first so the worksheet can be the
+ * last zip entry and stream out row by row; text goes into inline-string cells, so there is no shared-string
+ * table to build and memory stays constant however many rows are written.
+ */
+public final class XlsxSheetWriter implements SheetWriter {
+   private static final String MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+   private static final String RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+   private final ZipOutputStream zip;
+   private final Writer out;
+   private int rows;
+
+   public XlsxSheetWriter(OutputStream out, String sheetName) throws IOException {
+      this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+      this.zip.setLevel(Deflater.BEST_SPEED);
+      this.out = new BufferedWriter(new OutputStreamWriter(this.zip, StandardCharsets.UTF_8), 65536);
+      this.part("[Content_Types].xml", "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+         + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+         + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+         + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+         + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+         + "</Types>");
+      this.part("_rels/.rels", "<Relationships xmlns=\"" + RELATIONSHIPS + "\">"
+         + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+         + "</Relationships>");
+      this.part("xl/workbook.xml", "<workbook xmlns=\"" + MAIN + "\" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+         + "<sheets><sheet name=\"" + escape(sheetName) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+      this.part("xl/_rels/workbook.xml.rels", "<Relationships xmlns=\"" + RELATIONSHIPS + "\">"
+         + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+         + "</Relationships>");
+      this.zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+      this.out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<worksheet xmlns=\"" + MAIN + "\"><sheetData>");
+   }
+
+   public void writeRow(Object... cells) throws IOException {
+      int row = ++this.rows;
+      this.out.write("<row r=\"");
+      this.out.write(Integer.toString(row));
+      this.out.write("\">");
+
+      for(int i = 0; i < cells.length; ++i) {
+         Object cell = cells[i];
+         if (cell == null) {
+            continue;
+         }
+
+         this.out.write("<c r=\"");
+         this.out.write(column(i));
+         this.out.write(Integer.toString(row));
+         if (cell instanceof Number && Double.isFinite(((Number)cell).doubleValue())) {
+            this.out.write("\"><v>");
+            this.out.write(cell.toString());
+            this.out.write("</v></c>");
+         } else {
+            this.out.write("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+            this.out.write(escape(cell.toString()));
+            this.out.write("</t></is></c>");
+         }
+      }
+
+      this.out.write("</row>");
+   }
+
+   public void close() throws IOException {
+      this.out.write("</sheetData></worksheet>");
+      this.out.flush();
+      this.zip.closeEntry();
+      this.zip.close();
+   }
+
+   private void part(String name, String xml) throws IOException {
+      this.zip.putNextEntry(new ZipEntry(name));
+      this.out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+      this.out.write(xml);
+      this.out.flush();
+      this.zip.closeEntry();
+   }
+
+   private static String column(int index) {
+      String column = "";
+
+      for(int i = index + 1; i > 0; i = (i - 1) / 26) {
+         column = (char)('A' + (i - 1) % 26) + column;
+      }
+
+      return column;
+   }
+
+   // Escapes markup and drops the control characters XML 1.0 cannot carry at all.
+   private static String escape(String text) {
+      StringBuilder sb = null;
+
+      for(int i = 0; i < text.length(); ++i) {
+         char c = text.charAt(i);
+         String replacement;
+         if (c == '&') {
+            replacement = "&amp;";
+         } else if (c == '<') {
+            replacement = "&lt;";
+         } else if (c == '>') {
+            replacement = "&gt;";
+         } else if (c == '"') {
+            replacement = "&quot;";
+         } else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r' || c == 0xFFFE || c == 0xFFFF) {
+            replacement = "";
+         } else {
+            if (sb != null) {
+               sb.append(c);
+            }
+
+            continue;
+         }
+
+         if (sb == null) {
+            sb = new StringBuilder(text.length() + 16).append(text, 0, i);
+         }
+
+         sb.append(replacement);
+      }
+
+      return sb == null ? text : sb.toString();
+   }
+}
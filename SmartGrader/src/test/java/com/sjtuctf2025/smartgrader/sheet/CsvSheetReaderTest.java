@@ -0,0 +1,91 @@
+package com.sjtuctf2025.smartgrader.sheet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+class CsvSheetReaderTest {
+   @Test
+   void readsQuotedFields() throws IOException {
+      CsvSheetReader reader = new CsvSheetReader(new StringReader("﻿学号,姓名,成绩\r\n1,\"Smith, \"\"J\"\"\",88\n"));
+      assertArrayEquals(new String[]{"学号", "姓名", "成绩"}, reader.next());
+      assertArrayEquals(new String[]{"1", "Smith, \"J\"", "88"}, reader.next());
+      assertNull(reader.next());
+   }
+
+   @Test
+   void dropsColumnsThatAreNotKept() throws IOException {
+      CsvSheetReader reader = new CsvSheetReader(new StringReader("a,b,c,d\n1,2,3,4\n"));
+      reader.keepColumns(0, 2);
+      assertArrayEquals(new String[]{"a", null, "c"}, reader.next());
+      assertArrayEquals(new String[]{"1", null, "3"}, reader.next());
+   }
+
+   @Test
+   void rejectsUnterminatedQuoteWithoutReadingTheRest() {
+      // Far more input than the heap could hold as one field; the reader has to give up at the cell limit.
+      CsvSheetReader reader = new CsvSheetReader(new Endless('"', 'a', Long.MAX_VALUE));
+      assertThrows(IOException.class, reader::next);
+   }
+
+   @Test
+   void rejectsOversizedLine() {
+      CsvSheetReader reader = new CsvSheetReader(new Endless('x', 'b', XlsxSheetReader.MAX_CELL_CHARS + 1L));
+      assertThrows(IOException.class, reader::next);
+   }
+
+   @Test
+   void rejectsOversizedFieldInSkippedColumn() throws IOException {
+      CsvSheetReader reader = new CsvSheetReader(new StringReader("a,b\n1," + "b".repeat(XlsxSheetReader.MAX_CELL_CHARS + 1) + "\n"));
+      reader.next();
+      reader.keepColumns(0);
+      assertThrows(IOException.class, reader::next);
+   }
+
+   @Test
+   void rejectsHeaderWiderThanExcel() {
+      CsvSheetReader reader = new CsvSheetReader(new StringReader("a" + ",a".repeat(XlsxSheetReader.MAX_COLUMNS) + "\n"));
+      assertThrows(IOException.class, reader::next);
+   }
+
+   // One first character followed by the same filler character, generated rather than held in memory.
+   private static final class Endless extends Reader {
+      private final char first;
+      private final char filler;
+      private long remaining;
+      private boolean started;
+
+      Endless(char first, char filler, long length) {
+         this.first = first;
+         this.filler = filler;
+         this.remaining = length;
+      }
+
+      public int read(char[] buffer, int offset, int length) {
+         if (this.remaining <= 0L) {
+            return -1;
+         }
+
+         int count = (int)Math.min(length, this.remaining);
+         for(int i = 0; i < count; ++i) {
+            buffer[offset + i] = this.filler;
+         }
+
+         if (!this.started) {
+            this.started = true;
+            buffer[offset] = this.first;
+         }
+
+         this.remaining -= count;
+         return count;
+      }
+
+      public void close() {
+      }
+   }
+}